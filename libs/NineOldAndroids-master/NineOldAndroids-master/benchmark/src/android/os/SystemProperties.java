@@ -0,0 +1,42 @@
+package android.os;
+
+/**
+ * Replaces the framework class of the same name, whose methods are native and cannot be called
+ * on a plain JVM. Every property has its default value, except for the SDK version, which is
+ * reported as Honeycomb so that the library sets view properties directly instead of through
+ * {@code AnimatorProxy}, whose matrix and camera are native as well.
+ */
+public class SystemProperties {
+    public static final int PROP_NAME_MAX = 31;
+    public static final int PROP_VALUE_MAX = 91;
+
+    private static final String SDK_VERSION = "ro.build.version.sdk";
+    private static final String HONEYCOMB = "11";
+
+    public static String get(String key) {
+        return get(key, "");
+    }
+
+    public static String get(String key, String def) {
+        return SDK_VERSION.equals(key) ? HONEYCOMB : def;
+    }
+
+    public static int getInt(String key, int def) {
+        return SDK_VERSION.equals(key) ? Integer.parseInt(HONEYCOMB) : def;
+    }
+
+    public static long getLong(String key, long def) {
+        return SDK_VERSION.equals(key) ? Long.parseLong(HONEYCOMB) : def;
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        return def;
+    }
+
+    public static void set(String key, String val) {
+        throw new UnsupportedOperationException("System properties are read-only");
+    }
+
+    public static void addChangeCallback(Runnable callback) {
+    }
+}
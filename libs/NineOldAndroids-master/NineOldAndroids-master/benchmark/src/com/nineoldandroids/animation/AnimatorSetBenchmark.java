@@ -0,0 +1,100 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link AnimatorSet}s with large dependency graphs. {@link #startAndCancel()} is
+ * dominated by sorting the nodes of a set with many dependencies, and {@link #runToEnd()}
+ * plays a chain of nested sets from start to end, one frame at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimatorSetBenchmark {
+    private static final long CHILD_DURATION = 2 * Benchmarks.FRAME_MILLIS;
+
+    /** Number of animators in the flat set, and of nested sets in the chain. */
+    @Param({ "4", "64", "512" })
+    int nodes;
+
+    private ManualFrameClock mClock;
+    private AnimatorSet mFlatSet;
+    private AnimatorSet mNestedSet;
+
+    @Setup
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+
+        // Each animator plays after the previous one, and every fourth with the one before it
+        mFlatSet = new AnimatorSet();
+        ValueAnimator previous = createChild();
+        mFlatSet.play(previous);
+        for (int i = 1; i < nodes; ++i) {
+            ValueAnimator anim = createChild();
+            if (i % 4 == 0) {
+                mFlatSet.play(anim).with(previous);
+            } else {
+                mFlatSet.play(anim).after(previous);
+            }
+            previous = anim;
+        }
+
+        // Each set plays an animator and then the next set
+        AnimatorSet child = null;
+        for (int i = 0; i < nodes; ++i) {
+            AnimatorSet set = new AnimatorSet();
+            if (child == null) {
+                set.play(createChild());
+            } else {
+                set.playSequentially(createChild(), child);
+            }
+            child = set;
+        }
+        mNestedSet = child;
+    }
+
+    @TearDown
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Benchmark
+    public AnimatorSet startAndCancel() {
+        mFlatSet.start();
+        mFlatSet.cancel();
+        return mFlatSet;
+    }
+
+    @Benchmark
+    public int runToEnd() {
+        int frames = 0;
+        mNestedSet.start();
+        while (mNestedSet.isStarted()) {
+            mClock.advance(Benchmarks.FRAME_MILLIS);
+            ++frames;
+        }
+        return frames;
+    }
+
+    private static ValueAnimator createChild() {
+        ValueAnimator anim = ValueAnimator.ofFloat(0f, 1f);
+        anim.setDuration(CHILD_DURATION);
+        return anim;
+    }
+}
@@ -0,0 +1,171 @@
+package com.nineoldandroids.animation;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.nineoldandroids.util.FloatProperty;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/** Helpers shared by the benchmarks. */
+final class Benchmarks {
+    /** Time between frames, as on a 60Hz display. */
+    static final long FRAME_MILLIS = 16;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Drives animations on the calling thread from a new {@link ManualFrameClock}, so that they
+     * run without a Looper and every frame happens when the benchmark asks for it.
+     */
+    static ManualFrameClock installClock() {
+        ManualFrameClock clock = new ManualFrameClock();
+        ValueAnimator.setFrameClock(clock);
+        return clock;
+    }
+
+    /** Returns the given number of float values, alternating between low and high. */
+    static float[] values(int count) {
+        float[] values = new float[count];
+        for (int i = 0; i < count; ++i) {
+            values[i] = (i % 2 == 0) ? i : 100f + i;
+        }
+        return values;
+    }
+
+    /**
+     * Makes an animator run until it is canceled. Durations vary with the index so that the
+     * animators do not all repeat on the same frame.
+     */
+    static void repeatForever(ValueAnimator anim, int index) {
+        anim.setDuration(1000 + (index % 64) * 16);
+        anim.setRepeatCount(ValueAnimator.INFINITE);
+        anim.setRepeatMode(ValueAnimator.REVERSE);
+    }
+
+    /**
+     * Returns the given number of views, created with a context whose resources hold nothing
+     * but display metrics. The resources and configurations of the framework are backed by
+     * native code, so the resources are allocated without running their constructor, and the
+     * view configuration for their density is put into the framework's cache beforehand.
+     */
+    static TargetView[] views(int count) {
+        Context context = newContext();
+        TargetView[] views = new TargetView[count];
+        for (int i = 0; i < count; ++i) {
+            views[i] = new TargetView(context);
+        }
+        return views;
+    }
+
+    private static Context newContext() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            Method allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+            final Resources resources = (Resources) allocateInstance.invoke(
+                    unsafeField.get(null), Resources.class);
+            DisplayMetrics metrics = new DisplayMetrics();
+            metrics.density = 1f;
+            Field metricsField = Resources.class.getDeclaredField("mMetrics");
+            metricsField.setAccessible(true);
+            metricsField.set(resources, metrics);
+
+            Field configurationsField =
+                    ViewConfiguration.class.getDeclaredField("sConfigurations");
+            configurationsField.setAccessible(true);
+            @SuppressWarnings("unchecked")
+            SparseArray<ViewConfiguration> configurations =
+                    (SparseArray<ViewConfiguration>) configurationsField.get(null);
+            @SuppressWarnings("deprecation")
+            ViewConfiguration configuration = new ViewConfiguration();
+            configurations.put((int) (100f * metrics.density), configuration);
+
+            return new ContextWrapper(null) {
+                @Override
+                public Resources getResources() {
+                    return resources;
+                }
+            };
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot create views outside of a device", e);
+        }
+    }
+
+    /**
+     * A view whose animated properties are plain fields, since the framework keeps them in a
+     * native matrix. Animating these views measures the animators and not the framework.
+     */
+    public static final class TargetView extends View {
+        private float mTranslationX;
+        private float mTranslationY;
+        private float mAlpha = 1f;
+
+        TargetView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public float getTranslationX() {
+            return mTranslationX;
+        }
+
+        @Override
+        public void setTranslationX(float translationX) {
+            mTranslationX = translationX;
+        }
+
+        @Override
+        public float getTranslationY() {
+            return mTranslationY;
+        }
+
+        @Override
+        public void setTranslationY(float translationY) {
+            mTranslationY = translationY;
+        }
+
+        @Override
+        public float getAlpha() {
+            return mAlpha;
+        }
+
+        @Override
+        public void setAlpha(float alpha) {
+            mAlpha = alpha;
+        }
+    }
+
+    /** An object animated through reflection or through {@link #X}. */
+    public static final class Target {
+        private float mX;
+
+        public void setX(float x) {
+            mX = x;
+        }
+
+        public float getX() {
+            return mX;
+        }
+
+        static final FloatProperty<Target> X = new FloatProperty<Target>("x") {
+            @Override
+            public void setValue(Target object, float value) {
+                object.mX = value;
+            }
+
+            @Override
+            public Float get(Target object) {
+                return object.mX;
+            }
+        };
+    }
+}
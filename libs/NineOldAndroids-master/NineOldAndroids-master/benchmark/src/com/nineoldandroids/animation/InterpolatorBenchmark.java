@@ -0,0 +1,93 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.CycleInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * Cost of one call to a framework interpolator, to a {@link LookupTableInterpolator} sampled from
+ * it, and to whichever of the two {@link ValueAnimator} uses for its frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpolatorBenchmark {
+    private static final int FRACTIONS = 1024;
+
+    @Param({ "accelerate", "accelerate(2.5)", "decelerate(1.5)", "accelerateDecelerate", "cycle" })
+    String interpolator;
+
+    private Interpolator mSource;
+    private Interpolator mTable;
+    private Interpolator mFrame;
+    private final float[] mFractions = new float[FRACTIONS];
+
+    @Setup
+    public void setUp() {
+        if (interpolator.equals("accelerate")) {
+            mSource = new AccelerateInterpolator();
+        } else if (interpolator.equals("accelerate(2.5)")) {
+            mSource = new AccelerateInterpolator(2.5f);
+        } else if (interpolator.equals("decelerate(1.5)")) {
+            mSource = new DecelerateInterpolator(1.5f);
+        } else if (interpolator.equals("accelerateDecelerate")) {
+            mSource = new AccelerateDecelerateInterpolator();
+        } else if (interpolator.equals("cycle")) {
+            mSource = new CycleInterpolator(2);
+        } else {
+            throw new IllegalArgumentException("Unknown interpolator: " + interpolator);
+        }
+        mTable = new LookupTableInterpolator(mSource);
+        mFrame = LookupTableInterpolator.wrapKnown(mSource);
+        for (int i = 0; i < FRACTIONS; ++i) {
+            // Spread over [0, 1] in an order which defeats the branch predictor
+            mFractions[i] = ((i * 389) % FRACTIONS) / (float) (FRACTIONS - 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRACTIONS)
+    public float source() {
+        return interpolate(mSource);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRACTIONS)
+    public float table() {
+        return interpolate(mTable);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRACTIONS)
+    public float frame() {
+        return interpolate(mFrame);
+    }
+
+    private float interpolate(Interpolator interpolator) {
+        float sum = 0;
+        for (int i = 0; i < FRACTIONS; ++i) {
+            sum += interpolator.getInterpolation(mFractions[i]);
+        }
+        return sum;
+    }
+}
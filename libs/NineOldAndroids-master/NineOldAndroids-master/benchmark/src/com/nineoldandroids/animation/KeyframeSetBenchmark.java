@@ -0,0 +1,89 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of calculating a value from a {@link KeyframeSet} with many keyframes, through the
+ * primitive and the boxing paths, and with a custom evaluator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyframeSetBenchmark {
+    private static final int FRACTIONS = 1024;
+
+    @Param({ "2", "8", "64", "512" })
+    int keyframes;
+
+    private FloatKeyframeSet mFloatSet;
+    private IntKeyframeSet mArgbSet;
+    private KeyframeSet mObjectSet;
+    private final float[] mFractions = new float[FRACTIONS];
+
+    @Setup
+    public void setUp() {
+        mFloatSet = (FloatKeyframeSet) KeyframeSet.ofFloat(Benchmarks.values(keyframes));
+        int[] colors = new int[keyframes];
+        for (int i = 0; i < keyframes; ++i) {
+            colors[i] = 0xff000000 | (i * 0x010307);
+        }
+        mArgbSet = (IntKeyframeSet) KeyframeSet.ofInt(colors);
+        mArgbSet.setEvaluator(new ArgbEvaluator());
+        Object[] points = new Object[keyframes];
+        for (int i = 0; i < keyframes; ++i) {
+            points[i] = Float.valueOf(i);
+        }
+        mObjectSet = KeyframeSet.ofObject(points);
+        mObjectSet.setEvaluator(new FloatEvaluator());
+        for (int i = 0; i < FRACTIONS; ++i) {
+            // Spread over [0, 1] in an order which defeats the branch predictor
+            mFractions[i] = ((i * 389) % FRACTIONS) / (float) (FRACTIONS - 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRACTIONS)
+    public float floatValue() {
+        float sum = 0;
+        for (int i = 0; i < FRACTIONS; ++i) {
+            sum += mFloatSet.getFloatValue(mFractions[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRACTIONS)
+    public int argbValue() {
+        int sum = 0;
+        for (int i = 0; i < FRACTIONS; ++i) {
+            sum += mArgbSet.getIntValue(mFractions[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRACTIONS)
+    public float boxedValue() {
+        float sum = 0;
+        for (int i = 0; i < FRACTIONS; ++i) {
+            sum += (Float) mObjectSet.getValue(mFractions[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,77 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one animation frame with many {@link ObjectAnimator}s, which set their values through
+ * reflection on a property name or through a typed {@link com.nineoldandroids.util.Property}.
+ * Creating and starting animators, which looks up and caches the setters, is measured
+ * separately.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectAnimatorBenchmark {
+    @Param({ "1", "100", "10000" })
+    int animators;
+
+    @Param({ "reflection", "property" })
+    String setter;
+
+    private ManualFrameClock mClock;
+    private Benchmarks.Target[] mTargets;
+
+    @Setup
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+        mTargets = new Benchmarks.Target[animators];
+        for (int i = 0; i < animators; ++i) {
+            mTargets[i] = new Benchmarks.Target();
+            ObjectAnimator anim = create(mTargets[i]);
+            Benchmarks.repeatForever(anim, i);
+            anim.start();
+        }
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Benchmark
+    public void frame() {
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+
+    @Benchmark
+    public ObjectAnimator startAndCancel() {
+        ObjectAnimator anim = create(mTargets[0]);
+        anim.start();
+        anim.cancel();
+        return anim;
+    }
+
+    private ObjectAnimator create(Benchmarks.Target target) {
+        if ("property".equals(setter)) {
+            return ObjectAnimator.ofFloat(target, Benchmarks.Target.X, 0f, 100f);
+        }
+        return ObjectAnimator.ofFloat(target, "x", 0f, 100f);
+    }
+}
@@ -0,0 +1,62 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one animation frame of a {@link SpringAnimator} with many springs, each of which is
+ * given a new target on every frame so that none of them comes to rest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpringAnimatorBenchmark {
+    @Param({ "1", "10", "100", "1000", "10000" })
+    int springs;
+
+    private ManualFrameClock mClock;
+    private SpringAnimator mAnimator;
+    private int mFrame;
+
+    @Setup
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+        mAnimator = new SpringAnimator(springs);
+        retarget();
+        mAnimator.start();
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Benchmark
+    public void retargetAndFrame() {
+        retarget();
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+
+    private void retarget() {
+        float offset = (++mFrame % 2 == 0) ? 0f : 100f;
+        for (int i = 0; i < springs; ++i) {
+            mAnimator.setTarget(i, offset + i);
+        }
+    }
+}
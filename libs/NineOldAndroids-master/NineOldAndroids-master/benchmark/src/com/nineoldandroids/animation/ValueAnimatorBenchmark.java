@@ -0,0 +1,57 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one animation frame with many {@link ValueAnimator}s running at once. The animators
+ * repeat forever, so every frame does the same work and some frames also send repeat events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueAnimatorBenchmark {
+    @Param({ "1", "10", "100", "1000", "10000" })
+    int animators;
+
+    @Param({ "2", "16" })
+    int keyframes;
+
+    private ManualFrameClock mClock;
+
+    @Setup
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+        for (int i = 0; i < animators; ++i) {
+            ValueAnimator anim = ValueAnimator.ofFloat(Benchmarks.values(keyframes));
+            Benchmarks.repeatForever(anim, i);
+            anim.start();
+        }
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Benchmark
+    public void frame() {
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+}
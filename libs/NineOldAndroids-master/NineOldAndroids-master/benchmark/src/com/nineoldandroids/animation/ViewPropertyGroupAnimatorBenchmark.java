@@ -0,0 +1,78 @@
+package com.nineoldandroids.animation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nineoldandroids.view.ViewPropertyAnimator;
+import com.nineoldandroids.view.ViewPropertyGroupAnimator;
+
+/**
+ * Cost of one animation frame which moves and fades a staggered group of views, either with one
+ * {@link ViewPropertyAnimator} per view or with a single {@link ViewPropertyGroupAnimator}. Both
+ * use the default interpolator and set the same properties on every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewPropertyGroupAnimatorBenchmark {
+    // Long enough that no view finishes within an iteration
+    private static final long DURATION = TimeUnit.DAYS.toMillis(365);
+    private static final long STAGGER = Benchmarks.FRAME_MILLIS;
+
+    @Param({ "10", "100", "1000" })
+    int views;
+
+    @Param({ "viewPropertyAnimator", "group" })
+    String animator;
+
+    private ManualFrameClock mClock;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+        Benchmarks.TargetView[] targets = Benchmarks.views(views);
+        if ("group".equals(animator)) {
+            ViewPropertyGroupAnimator.animate(targets)
+                    .translationY(100f).alpha(0.5f)
+                    .setDuration(DURATION)
+                    .setStagger(STAGGER)
+                    .start();
+        } else {
+            for (int i = 0; i < views; ++i) {
+                ViewPropertyAnimator.animate(targets[i])
+                        .translationY(100f).alpha(0.5f)
+                        .setDuration(DURATION)
+                        .setStartDelay(i * STAGGER)
+                        .start();
+            }
+        }
+        // Start every view, so that each frame updates all of them
+        mClock.advance(views * STAGGER + Benchmarks.FRAME_MILLIS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Benchmark
+    public void frame() {
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+    }
+}
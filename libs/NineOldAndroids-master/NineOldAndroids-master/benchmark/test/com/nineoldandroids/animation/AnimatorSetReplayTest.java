@@ -0,0 +1,122 @@
+package com.nineoldandroids.animation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that an {@link AnimatorSet} which reuses its compiled plan still plays to the end when
+ * it is started again, and that its children only hold on to it while it runs.
+ */
+public class AnimatorSetReplayTest {
+    private static final long CHILD_DURATION = 4 * Benchmarks.FRAME_MILLIS;
+
+    private ManualFrameClock mClock;
+    private ValueAnimator mFirst;
+    private ValueAnimator mSecond;
+    private AnimatorSet mSet;
+    private CountingListener mListener;
+
+    @Before
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+        mFirst = ValueAnimator.ofFloat(0f, 1f).setDuration(CHILD_DURATION);
+        mSecond = ValueAnimator.ofFloat(0f, 1f).setDuration(CHILD_DURATION);
+        mSet = new AnimatorSet();
+        mSet.playSequentially(mFirst, mSecond);
+        mListener = new CountingListener();
+        mSet.addListener(mListener);
+    }
+
+    @After
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Test
+    public void replaysAfterChildListenersWereRemoved() {
+        playToEnd();
+        assertEquals(1, mListener.mEnds);
+
+        mFirst.removeAllListeners();
+        mSecond.removeAllListeners();
+        playToEnd();
+        assertEquals(2, mListener.mEnds);
+        assertFalse(mSet.isStarted());
+    }
+
+    @Test
+    public void replaysFromEndListener() {
+        mSet.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                if (mListener.mEnds == 1) {
+                    animation.start();
+                }
+            }
+        });
+        mSet.start();
+        advanceFrames();
+        assertTrue(mSet.isStarted());
+        advanceFrames();
+        assertEquals(2, mListener.mEnds);
+        assertFalse(mSet.isStarted());
+    }
+
+    @Test
+    public void childrenDropTheSetWhenItEnds() {
+        mSet.start();
+        assertEquals(1, mFirst.getListeners().size());
+        advanceFrames();
+        assertFalse(mSet.isStarted());
+        assertNull(mFirst.getListeners());
+        assertNull(mSecond.getListeners());
+    }
+
+    @Test
+    public void childrenDropTheSetWhenItIsCanceledOrEnded() {
+        mSet.start();
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+        mSet.cancel();
+        assertNull(mFirst.getListeners());
+        assertNull(mSecond.getListeners());
+
+        mSet.start();
+        mSet.end();
+        assertNull(mFirst.getListeners());
+        assertNull(mSecond.getListeners());
+        assertEquals(2, mListener.mEnds);
+
+        playToEnd();
+        assertEquals(3, mListener.mEnds);
+    }
+
+    private void playToEnd() {
+        mSet.start();
+        assertTrue(mSet.isStarted());
+        advanceFrames();
+    }
+
+    /** Advances past the end of both children, playing one after the other. */
+    private void advanceFrames() {
+        // The first frame of each child only records its start time
+        long frames = 2 * (CHILD_DURATION / Benchmarks.FRAME_MILLIS + 2);
+        for (int i = 0; i < frames; ++i) {
+            mClock.advance(Benchmarks.FRAME_MILLIS);
+        }
+    }
+
+    private static final class CountingListener extends AnimatorListenerAdapter {
+        int mEnds;
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            ++mEnds;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.nineoldandroids.animation;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that animation frames allocate nothing once the animators are running, using the
+ * per-thread allocation counter of HotSpot. The frames include repeat events, listener dispatch
+ * and property updates through typed properties. Setters called through reflection are left out,
+ * since {@link java.lang.reflect.Method#invoke} needs each value boxed.
+ */
+public class FrameAllocationTest {
+    private static final int ANIMATORS = 500;
+    private static final int WARMUP_FRAMES = 2000;
+    private static final int FRAMES = 500;
+
+    private com.sun.management.ThreadMXBean mThreads;
+    private ManualFrameClock mClock;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        mThreads = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(mThreads.isThreadAllocatedMemorySupported());
+        mThreads.setThreadAllocatedMemoryEnabled(true);
+        mClock = Benchmarks.installClock();
+    }
+
+    @After
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Test
+    public void steadyStateFramesDoNotAllocate() {
+        Animator.AnimatorListener listener = new AnimatorListenerAdapter() {
+        };
+        for (int i = 0; i < ANIMATORS; ++i) {
+            ValueAnimator anim;
+            if (i % 2 == 0) {
+                anim = ValueAnimator.ofFloat(Benchmarks.values(4));
+            } else {
+                anim = ObjectAnimator.ofFloat(new Benchmarks.Target(), Benchmarks.Target.X,
+                        Benchmarks.values(4));
+            }
+            Benchmarks.repeatForever(anim, i);
+            anim.addListener(listener);
+            anim.start();
+        }
+        // Run past the first repeat of every animator, and long enough for the frame loop to be
+        // compiled, so that only the steady state is measured.
+        advance(WARMUP_FRAMES);
+
+        long threadId = Thread.currentThread().getId();
+        long before = mThreads.getThreadAllocatedBytes(threadId);
+        long baseline = mThreads.getThreadAllocatedBytes(threadId) - before;
+        before = mThreads.getThreadAllocatedBytes(threadId);
+        advance(FRAMES);
+        long allocated = mThreads.getThreadAllocatedBytes(threadId) - before - baseline;
+
+        assertEquals("Bytes allocated by " + FRAMES + " frames of " + ANIMATORS + " animators",
+                0, allocated);
+    }
+
+    private void advance(int frames) {
+        for (int i = 0; i < frames; ++i) {
+            mClock.advance(Benchmarks.FRAME_MILLIS);
+        }
+    }
+}
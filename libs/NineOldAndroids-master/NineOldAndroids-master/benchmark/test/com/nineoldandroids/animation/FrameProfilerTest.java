@@ -0,0 +1,111 @@
+package com.nineoldandroids.animation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that a {@link FrameProfiler} driven by a {@link ManualFrameClock} and a fake
+ * {@link FrameProfiler#nanoTime()} records the same frames, drops and times on every run.
+ */
+public class FrameProfilerTest {
+    private static final int ANIMATORS = 3;
+    // Every animator runs for ten frames after the one which starts it
+    private static final long DURATION = 10 * Benchmarks.FRAME_MILLIS;
+    private static final long NANOS_PER_CALL = 1000;
+
+    private ManualFrameClock mClock;
+
+    @Before
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+    }
+
+    @After
+    public void tearDown() {
+        ValueAnimator.setFrameProfiler(null);
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Test
+    public void countsFramesDropsAndAnimatorFrames() {
+        CountingProfiler profiler = run();
+
+        // The starting frame, four frames, a gap of three frames, and the frames up to the end
+        assertEquals(1 + 4 + 1 + 3, profiler.getFrameCount());
+        assertEquals(2, profiler.getDroppedFrameCount());
+        assertEquals(ANIMATORS * profiler.getFrameCount(), profiler.getAnimatorFrameCount());
+        assertEquals(profiler.getFrameCount(), profiler.mFrames);
+        assertEquals(profiler.getDroppedFrameCount(), profiler.mDroppedFrames);
+        assertEquals(profiler.getAnimatorFrameCount(), profiler.mAnimatorFrames);
+    }
+
+    @Test
+    public void fakeTimeMakesDurationsReproducible() {
+        CountingProfiler first = run();
+        ValueAnimator.clearAllAnimations();
+        CountingProfiler second = run();
+
+        assertEquals(first.toString(), second.toString());
+        // Each frame reads the time once at its start and end, and twice per animator step
+        assertEquals(first.getFrameCount() * (2 + 2 * ANIMATORS), first.mCalls);
+        assertEquals(NANOS_PER_CALL * (1 + 2 * ANIMATORS), first.getMaxFrameNanos());
+        assertEquals(first.getAnimatorFrameCount() * NANOS_PER_CALL, first.getAnimationNanos());
+    }
+
+    @Test
+    public void idleTimeIsNotCountedAsDroppedFrames() {
+        CountingProfiler profiler = run();
+        // The animators have ended, so the gap before the next run is idle time
+        mClock.advance(100 * Benchmarks.FRAME_MILLIS);
+        startAnimators();
+        mClock.advance(Benchmarks.FRAME_MILLIS);
+        assertEquals(2, profiler.getDroppedFrameCount());
+    }
+
+    /** Plays the animators to the end with one late frame, and returns the profile. */
+    private CountingProfiler run() {
+        CountingProfiler profiler = new CountingProfiler();
+        ValueAnimator.setFrameProfiler(profiler);
+        startAnimators();
+        for (int i = 0; i < 5; ++i) {
+            mClock.advance(Benchmarks.FRAME_MILLIS);
+        }
+        mClock.advance(3 * Benchmarks.FRAME_MILLIS);
+        for (int i = 0; i < 3; ++i) {
+            mClock.advance(Benchmarks.FRAME_MILLIS);
+        }
+        return profiler;
+    }
+
+    private void startAnimators() {
+        for (int i = 0; i < ANIMATORS; ++i) {
+            ValueAnimator anim = ValueAnimator.ofFloat(0f, 1f);
+            anim.setDuration(DURATION);
+            anim.start();
+        }
+    }
+
+    /** A profiler whose clock advances by a fixed step on every read. */
+    private static final class CountingProfiler extends FrameProfiler {
+        long mCalls;
+        int mFrames;
+        int mDroppedFrames;
+        long mAnimatorFrames;
+
+        @Override
+        protected long nanoTime() {
+            return ++mCalls * NANOS_PER_CALL;
+        }
+
+        @Override
+        protected void onFrame(long frameTimeMillis, long frameNanos, long animationNanos,
+                long listenerNanos, long setterNanos, int animatorFrames, int droppedFrames) {
+            ++mFrames;
+            mDroppedFrames += droppedFrames;
+            mAnimatorFrames += animatorFrames;
+        }
+    }
+}
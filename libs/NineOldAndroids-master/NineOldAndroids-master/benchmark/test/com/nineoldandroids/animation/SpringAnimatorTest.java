@@ -0,0 +1,84 @@
+package com.nineoldandroids.animation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a {@link SpringAnimator} which is given a new target from one of its end
+ * listeners starts again and settles on that target.
+ */
+public class SpringAnimatorTest {
+    // Far more frames than a medium spring needs to settle
+    private static final int MAX_FRAMES = 1000;
+
+    private ManualFrameClock mClock;
+
+    @Before
+    public void setUp() {
+        mClock = Benchmarks.installClock();
+    }
+
+    @After
+    public void tearDown() {
+        ValueAnimator.clearAllAnimations();
+    }
+
+    @Test
+    public void animateToFromEndListenerRestarts() {
+        final SpringAnimator springs = new SpringAnimator(1);
+        final int[] ends = new int[1];
+        springs.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                if (++ends[0] == 1) {
+                    springs.animateTo(0, 0f);
+                }
+            }
+        });
+
+        springs.animateTo(0, 100f);
+        runUntilEnded(springs, 1, ends);
+        assertTrue(springs.isStarted());
+        assertFalse(springs.isAtRest(0));
+
+        runUntilEnded(springs, 2, ends);
+        assertFalse(springs.isStarted());
+        assertTrue(springs.isAtRest(0));
+        assertEquals(0f, springs.getValue(0), springs.getRestThreshold());
+    }
+
+    @Test
+    public void startFromEndListenerKeepsAnimatorStarted() {
+        final ValueAnimator anim = ValueAnimator.ofFloat(0f, 1f).setDuration(
+                4 * Benchmarks.FRAME_MILLIS);
+        final int[] ends = new int[1];
+        anim.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                if (++ends[0] == 1) {
+                    animation.start();
+                }
+            }
+        });
+
+        anim.start();
+        runUntilEnded(anim, 1, ends);
+        assertTrue(anim.isStarted());
+        assertTrue(anim.isRunning());
+
+        runUntilEnded(anim, 2, ends);
+        assertFalse(anim.isStarted());
+    }
+
+    private void runUntilEnded(ValueAnimator anim, int expectedEnds, int[] ends) {
+        for (int i = 0; i < MAX_FRAMES && ends[0] < expectedEnds; ++i) {
+            mClock.advance(Benchmarks.FRAME_MILLIS);
+        }
+        assertEquals(expectedEnds, ends[0]);
+    }
+}
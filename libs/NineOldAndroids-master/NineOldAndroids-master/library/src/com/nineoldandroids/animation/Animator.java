@@ -28,7 +28,9 @@ public abstract class Animator implements Cloneable {
 
 
     /**
-     * The set of listeners to be sent events through the life of an animation.
+     * The set of listeners to be sent events through the life of an animation. The list is
+     * copied whenever a listener is added or removed and is never modified once set, so
+     * notifications can iterate over it without copying it first.
      */
     ArrayList<AnimatorListener> mListeners = null;
 
@@ -142,10 +144,15 @@ public abstract class Animator implements Cloneable {
      * @param listener the listener to be added to the current set of listeners for this animation.
      */
     public void addListener(AnimatorListener listener) {
+        ArrayList<AnimatorListener> listeners;
         if (mListeners == null) {
-            mListeners = new ArrayList<AnimatorListener>();
+            listeners = new ArrayList<AnimatorListener>(1);
+        } else {
+            listeners = new ArrayList<AnimatorListener>(mListeners.size() + 1);
+            listeners.addAll(mListeners);
         }
-        mListeners.add(listener);
+        listeners.add(listener);
+        mListeners = listeners;
     }
 
     /**
@@ -155,18 +162,23 @@ public abstract class Animator implements Cloneable {
      *                 animation.
      */
     public void removeListener(AnimatorListener listener) {
-        if (mListeners == null) {
+        if (mListeners == null || !mListeners.contains(listener)) {
             return;
         }
-        mListeners.remove(listener);
-        if (mListeners.size() == 0) {
+        if (mListeners.size() == 1) {
             mListeners = null;
+            return;
         }
+        ArrayList<AnimatorListener> listeners = new ArrayList<AnimatorListener>(mListeners);
+        listeners.remove(listener);
+        mListeners = listeners;
     }
 
     /**
      * Gets the set of {@link android.animation.Animator.AnimatorListener} objects that are currently
-     * listening for events on this <code>Animator</code> object.
+     * listening for events on this <code>Animator</code> object. The returned list should not be
+     * modified; use {@link #addListener(AnimatorListener)} and
+     * {@link #removeListener(AnimatorListener)} instead.
      *
      * @return ArrayList<AnimatorListener> The set of listeners.
      */
@@ -175,15 +187,10 @@ public abstract class Animator implements Cloneable {
     }
 
     /**
-     * Removes all listeners from this object. This is equivalent to calling
-     * <code>getListeners()</code> followed by calling <code>clear()</code> on the
-     * returned list of listeners.
+     * Removes all listeners from this object.
      */
     public void removeAllListeners() {
-        if (mListeners != null) {
-            mListeners.clear();
-            mListeners = null;
-        }
+        mListeners = null;
     }
 
     @Override
@@ -191,12 +198,8 @@ public abstract class Animator implements Cloneable {
         try {
             final Animator anim = (Animator) super.clone();
             if (mListeners != null) {
-                ArrayList<AnimatorListener> oldListeners = mListeners;
-                anim.mListeners = new ArrayList<AnimatorListener>();
-                int numListeners = oldListeners.size();
-                for (int i = 0; i < numListeners; ++i) {
-                    anim.mListeners.add(oldListeners.get(i));
-                }
+                // getListeners() exposes the list, so the clone must not share it
+                anim.mListeners = new ArrayList<AnimatorListener>(mListeners);
             }
             return anim;
         } catch (CloneNotSupportedException e) {
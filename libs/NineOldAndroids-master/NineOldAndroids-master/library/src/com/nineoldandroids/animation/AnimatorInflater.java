@@ -16,6 +16,7 @@
 package com.nineoldandroids.animation;
 
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.content.res.XmlResourceParser;
@@ -28,7 +29,13 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * This class is used to instantiate animator XML files into Animator objects.
@@ -38,6 +45,11 @@ import java.util.ArrayList;
  * to use this inflater with an XmlPullParser over a plain XML file at runtime;
  * it only works with an XmlPullParser returned from a compiled resource (R.
  * <em>something</em> file.)
+ * <p>
+ * Parsed animators are kept in a small cache keyed by resource id and configuration, and
+ * {@link #loadAnimator(Context, int)} returns a clone of the cached animator. Resources which
+ * are needed in bulk, for example once per list item, can be parsed ahead of time with
+ * {@link #preloadAnimators(Context, int...)}.
  */
 public class AnimatorInflater {
     private static final int[] AnimatorSet = new int[] {
@@ -83,6 +95,35 @@ public class AnimatorInflater {
     //private static final int VALUE_TYPE_COLOR       = 4;
     //private static final int VALUE_TYPE_CUSTOM      = 5;
 
+    /**
+     * The number of parsed animators kept by default
+     */
+    private static final int DEFAULT_CACHE_SIZE = 32;
+
+    // Read without holding the lock by loadAnimator()
+    private static volatile int sCacheSize = DEFAULT_CACHE_SIZE;
+
+    /**
+     * Parsed animators by resource id, resources, theme and configuration, least recently used
+     * first. Only clones of these animators are handed out, so they are never started or
+     * changed. The keys hold their resources and theme weakly, so that the cache does not keep
+     * the theme of a destroyed activity alive, and entries whose resources or theme were
+     * collected are dropped on the next access.
+     */
+    private static final LinkedHashMap<CacheKey, Animator> sCache =
+            new LinkedHashMap<CacheKey, Animator>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Animator> eldest) {
+            return size() > sCacheSize;
+        }
+    };
+
+    // Receives the references of cache keys whose resources or theme were collected
+    private static final ReferenceQueue<Object> sClearedKeys = new ReferenceQueue<Object>();
+
+    // Stands in for the theme of a context without one, and is never collected
+    private static final Object NO_THEME = new Object();
+
     /**
      * Loads an {@link Animator} object from a resource
      *
@@ -94,6 +135,97 @@ public class AnimatorInflater {
     public static Animator loadAnimator(Context context, int id)
             throws NotFoundException {
 
+        if (sCacheSize <= 0) {
+            return inflateAnimator(context, id);
+        }
+        return getTemplate(context, id).clone();
+    }
+
+    /**
+     * Parses the given animator resources into the cache used by
+     * {@link #loadAnimator(Context, int)}, so that loading them later only copies the parsed
+     * animators. Resources which are already cached are skipped. This may be called from
+     * any thread, for example while the application starts.
+     *
+     * @param context Application context used to access resources
+     * @param ids The resource ids of the animations to load
+     * @throws android.content.res.Resources.NotFoundException when an animation cannot be loaded
+     */
+    public static void preloadAnimators(Context context, int... ids)
+            throws NotFoundException {
+
+        for (int id : ids) {
+            getTemplate(context, id);
+        }
+    }
+
+    /**
+     * Sets the number of parsed animators kept by {@link #loadAnimator(Context, int)}, dropping
+     * the least recently used ones if there are more. The default is 32, and 0 turns the
+     * cache off.
+     */
+    public static void setCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative: " + size);
+        }
+        synchronized (sCache) {
+            sCacheSize = size;
+            Iterator<CacheKey> it = sCache.keySet().iterator();
+            for (int excess = sCache.size() - size; excess > 0; --excess) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops all of the parsed animators kept by {@link #loadAnimator(Context, int)}.
+     */
+    public static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+            removeClearedKeys();
+        }
+    }
+
+    /**
+     * Returns the cached animator for the given resource with the resources, theme and
+     * configuration of the given context, parsing it first if needed. The returned animator
+     * must not be modified.
+     */
+    private static Animator getTemplate(Context context, int id) throws NotFoundException {
+        Resources resources = context.getResources();
+        Resources.Theme theme = context.getTheme();
+        Configuration config = resources.getConfiguration();
+        Animator template;
+        synchronized (sCache) {
+            removeClearedKeys();
+            template = sCache.get(new CacheKey(id, resources, theme, config, null));
+        }
+        if (template == null) {
+            // Parse outside of the lock; if two threads race, both results are equivalent
+            template = inflateAnimator(context, id);
+            synchronized (sCache) {
+                if (sCacheSize > 0) {
+                    sCache.put(new CacheKey(id, resources, theme, new Configuration(config),
+                            sClearedKeys), template);
+                }
+            }
+        }
+        return template;
+    }
+
+    /** Drops the entries whose resources or theme were collected. Called with the lock held. */
+    private static void removeClearedKeys() {
+        Reference<?> ref;
+        while ((ref = sClearedKeys.poll()) != null) {
+            sCache.remove(((KeyReference) ref).mKey);
+        }
+    }
+
+    private static Animator inflateAnimator(Context context, int id)
+            throws NotFoundException {
+
         XmlResourceParser parser = null;
         try {
             parser = context.getResources().getAnimation(id);
@@ -115,6 +247,69 @@ public class AnimatorInflater {
         }
     }
 
+    /**
+     * Identifies a parsed animator. Resources can differ between configurations, for example
+     * in a layout-dependent distance, and attributes are resolved against the theme, so the
+     * same id may map to several animators. Resources and themes have no notion of equality
+     * and are compared by identity. A key whose resources or theme were collected equals only
+     * itself.
+     */
+    private static final class CacheKey {
+        private final int mId;
+        private final KeyReference mResources;
+        private final KeyReference mTheme;
+        private final Configuration mConfig;
+        private final int mHashCode;
+
+        /**
+         * @param queue The queue which receives the references of a key stored in the cache,
+         * or null for a key which is only used for a lookup.
+         */
+        CacheKey(int id, Resources resources, Resources.Theme theme, Configuration config,
+                ReferenceQueue<Object> queue) {
+            mId = id;
+            mResources = new KeyReference(resources, this, queue);
+            mTheme = new KeyReference((theme != null) ? theme : NO_THEME, this, queue);
+            mConfig = config;
+            int result = id;
+            result = 31 * result + System.identityHashCode(resources);
+            result = 31 * result + System.identityHashCode(theme);
+            result = 31 * result + config.hashCode();
+            mHashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            Object resources = mResources.get();
+            Object theme = mTheme.get();
+            return mId == other.mId && resources != null && theme != null
+                    && resources == other.mResources.get() && theme == other.mTheme.get()
+                    && mConfig.equals(other.mConfig);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    /** A weak reference to the resources or the theme of a cache key. */
+    private static final class KeyReference extends WeakReference<Object> {
+        final CacheKey mKey;
+
+        KeyReference(Object referent, CacheKey key, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            mKey = key;
+        }
+    }
+
     private static Animator createAnimatorFromXml(Context c, XmlPullParser parser)
             throws XmlPullParserException, IOException {
 
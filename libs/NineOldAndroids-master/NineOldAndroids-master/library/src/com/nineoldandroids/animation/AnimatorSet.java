@@ -17,6 +17,7 @@
 package com.nineoldandroids.animation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -86,7 +87,11 @@ public final class AnimatorSet extends Animator {
      */
     private boolean mNeedsSort = true;
 
-    private AnimatorSetListener mSetListener = null;
+    /**
+     * The sorted nodes compiled into arrays, along with the state of the current run. Built
+     * by the first start after the dependencies change, and reused by later starts.
+     */
+    private Plan mPlan = null;
 
     /**
      * Flag indicating that the AnimatorSet has been manually
@@ -285,7 +290,7 @@ public final class AnimatorSet extends Animator {
         if (isStarted()) {
             ArrayList<AnimatorListener> tmpListeners = null;
             if (mListeners != null) {
-                tmpListeners = (ArrayList<AnimatorListener>) mListeners.clone();
+                tmpListeners = mListeners;
                 for (AnimatorListener listener : tmpListeners) {
                     listener.onAnimationCancel(this);
                 }
@@ -304,6 +309,9 @@ public final class AnimatorSet extends Animator {
                     listener.onAnimationEnd(this);
                 }
             }
+            if (mPlan != null) {
+                mPlan.detach();
+            }
             mStarted = false;
         }
     }
@@ -318,16 +326,9 @@ public final class AnimatorSet extends Animator {
     public void end() {
         mTerminated = true;
         if (isStarted()) {
-            if (mSortedNodes.size() != mNodes.size()) {
-                // hasn't been started yet - sort the nodes now, then end them
-                sortNodes();
-                for (Node node : mSortedNodes) {
-                    if (mSetListener == null) {
-                        mSetListener = new AnimatorSetListener(this);
-                    }
-                    node.animation.addListener(mSetListener);
-                }
-            }
+            // Nodes may have been added since the set was started - compile them now,
+            // then end them
+            getPlan();
             if (mDelayAnim != null) {
                 mDelayAnim.cancel();
             }
@@ -337,12 +338,12 @@ public final class AnimatorSet extends Animator {
                 }
             }
             if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
+                ArrayList<AnimatorListener> tmpListeners = mListeners;
                 for (AnimatorListener listener : tmpListeners) {
                     listener.onAnimationEnd(this);
                 }
             }
+            mPlan.detach();
             mStarted = false;
         }
     }
@@ -445,87 +446,30 @@ public final class AnimatorSet extends Animator {
      * it is responsible. The details of when exactly those animations are started depends on
      * the dependency relationships that have been set up between the animations.
      */
-    @SuppressWarnings("unchecked")
     @Override
     public void start() {
         mTerminated = false;
         mStarted = true;
 
-        // First, sort the nodes (if necessary). This will ensure that sortedNodes
-        // contains the animation nodes in the correct order.
-        sortNodes();
-
-        int numSortedNodes = mSortedNodes.size();
-        for (int i = 0; i < numSortedNodes; ++i) {
-            Node node = mSortedNodes.get(i);
-            // First, clear out the old listeners
-            ArrayList<AnimatorListener> oldListeners = node.animation.getListeners();
-            if (oldListeners != null && oldListeners.size() > 0) {
-                final ArrayList<AnimatorListener> clonedListeners = new
-                        ArrayList<AnimatorListener>(oldListeners);
-
-                for (AnimatorListener listener : clonedListeners) {
-                    if (listener instanceof DependencyListener ||
-                            listener instanceof AnimatorSetListener) {
-                        node.animation.removeListener(listener);
-                    }
-                }
-            }
-        }
+        // First, compile the nodes (if necessary). Replaying an unchanged set reuses the plan,
+        // resetting its counters and putting back its listeners, which come off the child
+        // animations when the set ends and may have been removed by the caller in between.
+        final Plan plan = getPlan();
+        plan.reset();
+        plan.attach();
 
-        // nodesToStart holds the list of nodes to be started immediately. We don't want to
-        // start the animations in the loop directly because we first need to set up
-        // dependencies on all of the nodes. For example, we don't want to start an animation
-        // when some other animation also wants to start when the first animation begins.
-        final ArrayList<Node> nodesToStart = new ArrayList<Node>();
-        for (int i = 0; i < numSortedNodes; ++i) {
-            Node node = mSortedNodes.get(i);
-            if (mSetListener == null) {
-                mSetListener = new AnimatorSetListener(this);
-            }
-            if (node.dependencies == null || node.dependencies.size() == 0) {
-                nodesToStart.add(node);
-            } else {
-                int numDependencies = node.dependencies.size();
-                for (int j = 0; j < numDependencies; ++j) {
-                    Dependency dependency = node.dependencies.get(j);
-                    dependency.node.animation.addListener(
-                            new DependencyListener(this, node, dependency.rule));
-                }
-                node.tmpDependencies = (ArrayList<Dependency>) node.dependencies.clone();
-            }
-            node.animation.addListener(mSetListener);
-        }
-        // Now that all dependencies are set up, start the animations that should be started.
         if (mStartDelay <= 0) {
-            for (Node node : nodesToStart) {
-                node.animation.start();
-                mPlayingSet.add(node.animation);
-            }
+            plan.startRoots();
         } else {
-            mDelayAnim = ValueAnimator.ofFloat(0f, 1f);
+            if (mDelayAnim == null) {
+                mDelayAnim = ValueAnimator.ofFloat(0f, 1f);
+                mDelayAnim.addListener(new DelayListener());
+            }
             mDelayAnim.setDuration(mStartDelay);
-            mDelayAnim.addListener(new AnimatorListenerAdapter() {
-                boolean canceled = false;
-                public void onAnimationCancel(Animator anim) {
-                    canceled = true;
-                }
-                public void onAnimationEnd(Animator anim) {
-                    if (!canceled) {
-                        int numNodes = nodesToStart.size();
-                        for (int i = 0; i < numNodes; ++i) {
-                            Node node = nodesToStart.get(i);
-                            node.animation.start();
-                            mPlayingSet.add(node.animation);
-                        }
-                    }
-                }
-            });
             mDelayAnim.start();
         }
         if (mListeners != null) {
-            ArrayList<AnimatorListener> tmpListeners =
-                    (ArrayList<AnimatorListener>) mListeners.clone();
+            ArrayList<AnimatorListener> tmpListeners = mListeners;
             int numListeners = tmpListeners.size();
             for (int i = 0; i < numListeners; ++i) {
                 tmpListeners.get(i).onAnimationStart(this);
@@ -536,8 +480,7 @@ public final class AnimatorSet extends Animator {
             // end event immediately since the event will not be sent out at all otherwise
             mStarted = false;
             if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
+                ArrayList<AnimatorListener> tmpListeners = mListeners;
                 int numListeners = tmpListeners.size();
                 for (int i = 0; i < numListeners; ++i) {
                     tmpListeners.get(i).onAnimationEnd(this);
@@ -558,6 +501,8 @@ public final class AnimatorSet extends Animator {
          * and will populate any appropriate lists, when it is started.
          */
         anim.mNeedsSort = true;
+        anim.mPlan = null;
+        anim.mDelayAnim = null;
         anim.mTerminated = false;
         anim.mStarted = false;
         anim.mPlayingSet = new ArrayList<Animator>();
@@ -576,16 +521,14 @@ public final class AnimatorSet extends Animator {
             anim.mNodeMap.put(nodeClone.animation, nodeClone);
             // Clear out the dependencies in the clone; we'll set these up manually later
             nodeClone.dependencies = null;
-            nodeClone.tmpDependencies = null;
             nodeClone.nodeDependents = null;
-            nodeClone.nodeDependencies = null;
             // clear out any listeners that were set up by the AnimatorSet; these will
-            // be set up when the clone's nodes are sorted
+            // be set up when the clone's nodes are compiled
             ArrayList<AnimatorListener> cloneListeners = nodeClone.animation.getListeners();
             if (cloneListeners != null) {
                 ArrayList<AnimatorListener> listenersToRemove = null;
                 for (AnimatorListener listener : cloneListeners) {
-                    if (listener instanceof AnimatorSetListener) {
+                    if (listener instanceof NodeListener) {
                         if (listenersToRemove == null) {
                             listenersToRemove = new ArrayList<AnimatorListener>();
                         }
@@ -594,7 +537,7 @@ public final class AnimatorSet extends Animator {
                 }
                 if (listenersToRemove != null) {
                     for (AnimatorListener listener : listenersToRemove) {
-                        cloneListeners.remove(listener);
+                        nodeClone.animation.removeListener(listener);
                     }
                 }
             }
@@ -617,229 +560,322 @@ public final class AnimatorSet extends Animator {
     }
 
     /**
-     * This class is the mechanism by which animations are started based on events in other
-     * animations. If an animation has multiple dependencies on other animations, then
-     * all dependencies must be satisfied before the animation is started.
+     * Returns the plan for the current nodes, sorting and compiling them first if the
+     * dependencies changed since the plan was last built.
      */
-    private static class DependencyListener implements AnimatorListener {
-
-        private AnimatorSet mAnimatorSet;
-
-        // The node upon which the dependency is based.
-        private Node mNode;
+    private Plan getPlan() {
+        if (mPlan == null || mNeedsSort) {
+            if (mPlan != null) {
+                mPlan.detach();
+            }
+            mPlan = new Plan(sortNodes());
+            mNeedsSort = false;
+        }
+        return mPlan;
+    }
 
-        // The Dependency rule (WITH or AFTER) that the listener should wait for on
-        // the node
-        private int mRule;
+    /**
+     * This method sorts the current set of nodes into mSortedNodes, and returns them
+     * as an array. The sort is a simple DependencyGraph sort, which goes like this:
+     * - All nodes without dependencies become 'roots'
+     * - while roots list is not null
+     * -   for each root r
+     * -     add r to sorted list
+     * -     remove r as a dependency from any other node
+     * -   any nodes with no dependencies are added to the roots list
+     * The dependencies are counted in a temporary array, so the nodes are left unchanged.
+     */
+    private Node[] sortNodes() {
+        int numNodes = mNodes.size();
+        int[] remaining = new int[numNodes];
+        Node[] sorted = new Node[numNodes];
+        int numSorted = 0;
+        for (int i = 0; i < numNodes; ++i) {
+            Node node = mNodes.get(i);
+            node.planIndex = i;
+            remaining[i] = (node.dependencies == null) ? 0 : node.dependencies.size();
+            if (remaining[i] == 0) {
+                sorted[numSorted++] = node;
+            }
+        }
+        // The sorted array doubles as the queue of roots still to be processed
+        for (int i = 0; i < numSorted; ++i) {
+            Node root = sorted[i];
+            if (root.nodeDependents != null) {
+                int numDependents = root.nodeDependents.size();
+                for (int j = 0; j < numDependents; ++j) {
+                    Node node = root.nodeDependents.get(j);
+                    if (--remaining[node.planIndex] == 0) {
+                        sorted[numSorted++] = node;
+                    }
+                }
+            }
+        }
+        if (numSorted != numNodes) {
+            throw new IllegalStateException("Circular dependencies cannot exist"
+                    + " in AnimatorSet");
+        }
+        mSortedNodes.clear();
+        for (int i = 0; i < numNodes; ++i) {
+            sorted[i].planIndex = i;
+            mSortedNodes.add(sorted[i]);
+        }
+        return sorted;
+    }
 
-        public DependencyListener(AnimatorSet animatorSet, Node node, int rule) {
-            this.mAnimatorSet = animatorSet;
-            this.mNode = node;
-            this.mRule = rule;
+    /**
+     * The sorted nodes of an AnimatorSet compiled into arrays of node indices, which say which
+     * nodes start right away and which nodes each start or end event releases. Each child
+     * animation gets one {@link NodeListener}, created with the plan and reused until the
+     * dependencies change and the plan is replaced, so that starting the set again only has to
+     * reset the counters of the previous run. The listeners are attached while the set runs
+     * only, so that the children do not keep a finished set reachable.
+     */
+    private final class Plan {
+        private static final int WAITING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+
+        private final Node[] mPlanNodes;
+        private final NodeListener[] mNodeListeners;
+        // Nodes without dependencies, started when the set starts
+        private final int[] mRoots;
+        // Number of dependencies of each node
+        private final int[] mDependencyCounts;
+        // Nodes with a WITH or AFTER dependency on each node. A node which depends on another
+        // node several times is listed once for each dependency.
+        private final int[][] mWithDependents;
+        private final int[][] mAfterDependents;
+
+        // State of the current run: the dependencies not yet satisfied, and whether each node
+        // is waiting, running or done
+        private final int[] mPendingCounts;
+        private final int[] mStates;
+        private int mDoneCount;
+
+        Plan(Node[] sortedNodes) {
+            final int numNodes = sortedNodes.length;
+            mPlanNodes = sortedNodes;
+            mNodeListeners = new NodeListener[numNodes];
+            mDependencyCounts = new int[numNodes];
+            mPendingCounts = new int[numNodes];
+            mStates = new int[numNodes];
+            int numRoots = 0;
+            int[] numWith = new int[numNodes];
+            int[] numAfter = new int[numNodes];
+            for (int i = 0; i < numNodes; ++i) {
+                mNodeListeners[i] = new NodeListener(this, i);
+                ArrayList<Dependency> dependencies = sortedNodes[i].dependencies;
+                int numDependencies = (dependencies == null) ? 0 : dependencies.size();
+                mDependencyCounts[i] = numDependencies;
+                if (numDependencies == 0) {
+                    ++numRoots;
+                }
+                for (int j = 0; j < numDependencies; ++j) {
+                    Dependency dependency = dependencies.get(j);
+                    if (dependency.rule == Dependency.WITH) {
+                        ++numWith[dependency.node.planIndex];
+                    } else {
+                        ++numAfter[dependency.node.planIndex];
+                    }
+                }
+            }
+            mRoots = new int[numRoots];
+            mWithDependents = new int[numNodes][];
+            mAfterDependents = new int[numNodes][];
+            for (int i = 0; i < numNodes; ++i) {
+                mWithDependents[i] = new int[numWith[i]];
+                mAfterDependents[i] = new int[numAfter[i]];
+            }
+            // Reuse the sizes as fill positions
+            Arrays.fill(numWith, 0);
+            Arrays.fill(numAfter, 0);
+            numRoots = 0;
+            for (int i = 0; i < numNodes; ++i) {
+                if (mDependencyCounts[i] == 0) {
+                    mRoots[numRoots++] = i;
+                    continue;
+                }
+                ArrayList<Dependency> dependencies = sortedNodes[i].dependencies;
+                int numDependencies = dependencies.size();
+                for (int j = 0; j < numDependencies; ++j) {
+                    Dependency dependency = dependencies.get(j);
+                    int index = dependency.node.planIndex;
+                    if (dependency.rule == Dependency.WITH) {
+                        mWithDependents[index][numWith[index]++] = i;
+                    } else {
+                        mAfterDependents[index][numAfter[index]++] = i;
+                    }
+                }
+            }
         }
 
-        /**
-         * Ignore cancel events for now. We may want to handle this eventually,
-         * to prevent follow-on animations from running when some dependency
-         * animation is canceled.
-         */
-        public void onAnimationCancel(Animator animation) {
+        /** Attaches the listeners which are not on their child animations. */
+        void attach() {
+            for (int i = 0; i < mPlanNodes.length; ++i) {
+                Animator animation = mPlanNodes[i].animation;
+                ArrayList<AnimatorListener> listeners = animation.getListeners();
+                if (listeners == null || !listeners.contains(mNodeListeners[i])) {
+                    animation.addListener(mNodeListeners[i]);
+                }
+            }
         }
 
-        /**
-         * An end event is received - see if this is an event we are listening for
-         */
-        public void onAnimationEnd(Animator animation) {
-            if (mRule == Dependency.AFTER) {
-                startIfReady(animation);
+        void detach() {
+            for (int i = 0; i < mPlanNodes.length; ++i) {
+                mPlanNodes[i].animation.removeListener(mNodeListeners[i]);
             }
         }
 
-        /**
-         * Ignore repeat events for now
-         */
-        public void onAnimationRepeat(Animator animation) {
+        /** Prepares the plan for a new run of the set. */
+        void reset() {
+            System.arraycopy(mDependencyCounts, 0, mPendingCounts, 0, mPendingCounts.length);
+            Arrays.fill(mStates, WAITING);
+            mDoneCount = 0;
         }
 
-        /**
-         * A start event is received - see if this is an event we are listening for
-         */
-        public void onAnimationStart(Animator animation) {
-            if (mRule == Dependency.WITH) {
-                startIfReady(animation);
+        void startRoots() {
+            for (int i = 0; i < mRoots.length; ++i) {
+                startNode(mRoots[i]);
             }
         }
 
+        private void startNode(int index) {
+            Animator animation = mPlanNodes[index].animation;
+            mStates[index] = RUNNING;
+            mPlayingSet.add(animation);
+            animation.start();
+        }
+
         /**
-         * Check whether the event received is one that the node was waiting for.
-         * If so, mark it as complete and see whether it's time to start
-         * the animation.
-         * @param dependencyAnimation the animation that sent the event.
+         * Marks one dependency of each of the given nodes as satisfied, and starts the nodes
+         * which have no dependencies left.
          */
-        private void startIfReady(Animator dependencyAnimation) {
-            if (mAnimatorSet.mTerminated) {
-                // if the parent AnimatorSet was canceled, then don't start any dependent anims
-                return;
-            }
-            Dependency dependencyToRemove = null;
-            int numDependencies = mNode.tmpDependencies.size();
-            for (int i = 0; i < numDependencies; ++i) {
-                Dependency dependency = mNode.tmpDependencies.get(i);
-                if (dependency.rule == mRule &&
-                        dependency.node.animation == dependencyAnimation) {
-                    // rule fired - remove the dependency and listener and check to
-                    // see whether it's time to start the animation
-                    dependencyToRemove = dependency;
-                    dependencyAnimation.removeListener(this);
-                    break;
+        private void satisfy(int[] dependents) {
+            for (int i = 0; i < dependents.length; ++i) {
+                if (mTerminated) {
+                    // if the parent AnimatorSet was canceled, then don't start any dependent anims
+                    return;
+                }
+                int dependent = dependents[i];
+                if (--mPendingCounts[dependent] == 0) {
+                    startNode(dependent);
                 }
-            }
-            mNode.tmpDependencies.remove(dependencyToRemove);
-            if (mNode.tmpDependencies.size() == 0) {
-                // all dependencies satisfied: start the animation
-                mNode.animation.start();
-                mAnimatorSet.mPlayingSet.add(mNode.animation);
             }
         }
 
-    }
-
-    private class AnimatorSetListener implements AnimatorListener {
-
-        private AnimatorSet mAnimatorSet;
+        /** Whether events from the given node belong to a run of this plan. */
+        private boolean isRunning(int index) {
+            return mPlan == this && mStates[index] == RUNNING;
+        }
 
-        AnimatorSetListener(AnimatorSet animatorSet) {
-            mAnimatorSet = animatorSet;
+        void onNodeStart(int index) {
+            if (isRunning(index)) {
+                satisfy(mWithDependents[index]);
+            }
         }
 
-        public void onAnimationCancel(Animator animation) {
-            if (!mTerminated) {
+        void onNodeCancel(int index) {
+            if (isRunning(index) && !mTerminated) {
                 // Listeners are already notified of the AnimatorSet canceling in cancel().
                 // The logic below only kicks in when animations end normally
                 if (mPlayingSet.size() == 0) {
                     if (mListeners != null) {
-                        int numListeners = mListeners.size();
+                        ArrayList<AnimatorListener> tmpListeners = mListeners;
+                        int numListeners = tmpListeners.size();
                         for (int i = 0; i < numListeners; ++i) {
-                            mListeners.get(i).onAnimationCancel(mAnimatorSet);
+                            tmpListeners.get(i).onAnimationCancel(AnimatorSet.this);
                         }
                     }
                 }
             }
         }
 
-        @SuppressWarnings("unchecked")
-        public void onAnimationEnd(Animator animation) {
-            animation.removeListener(this);
-            mPlayingSet.remove(animation);
-            Node animNode = mAnimatorSet.mNodeMap.get(animation);
-            animNode.done = true;
-            if (!mTerminated) {
+        void onNodeEnd(int index) {
+            if (!isRunning(index)) {
+                return;
+            }
+            mStates[index] = DONE;
+            mPlayingSet.remove(mPlanNodes[index].animation);
+            if (mTerminated) {
                 // Listeners are already notified of the AnimatorSet ending in cancel() or
                 // end(); the logic below only kicks in when animations end normally
-                ArrayList<Node> sortedNodes = mAnimatorSet.mSortedNodes;
-                boolean allDone = true;
-                int numSortedNodes = sortedNodes.size();
-                for (int i = 0; i < numSortedNodes; ++i) {
-                    if (!sortedNodes.get(i).done) {
-                        allDone = false;
-                        break;
-                    }
-                }
-                if (allDone) {
-                    // If this was the last child animation to end, then notify listeners that this
-                    // AnimatorSet has ended
-                    if (mListeners != null) {
-                        ArrayList<AnimatorListener> tmpListeners =
-                                (ArrayList<AnimatorListener>) mListeners.clone();
-                        int numListeners = tmpListeners.size();
-                        for (int i = 0; i < numListeners; ++i) {
-                            tmpListeners.get(i).onAnimationEnd(mAnimatorSet);
-                        }
+                return;
+            }
+            ++mDoneCount;
+            satisfy(mAfterDependents[index]);
+            if (mDoneCount == mPlanNodes.length && mStarted) {
+                // If this was the last child animation to end, then notify listeners that this
+                // AnimatorSet has ended. A dependent which ended while being started above has
+                // already done so.
+                detach();
+                mStarted = false;
+                if (mListeners != null) {
+                    ArrayList<AnimatorListener> tmpListeners = mListeners;
+                    int numListeners = tmpListeners.size();
+                    for (int i = 0; i < numListeners; ++i) {
+                        tmpListeners.get(i).onAnimationEnd(AnimatorSet.this);
                     }
-                    mAnimatorSet.mStarted = false;
                 }
             }
         }
+    }
 
-        // Nothing to do
-        public void onAnimationRepeat(Animator animation) {
+    /**
+     * This class is the mechanism by which animations are started based on events in other
+     * animations, and by which the AnimatorSet finds out that all of its animations ended.
+     * It forwards the events of one child animation to the {@link Plan} it belongs to.
+     */
+    private static class NodeListener implements AnimatorListener {
+
+        private final Plan mNodePlan;
+
+        // The index of the node whose animation this listener is attached to
+        private final int mIndex;
+
+        NodeListener(Plan plan, int index) {
+            mNodePlan = plan;
+            mIndex = index;
         }
 
-        // Nothing to do
         public void onAnimationStart(Animator animation) {
+            mNodePlan.onNodeStart(mIndex);
+        }
+
+        public void onAnimationCancel(Animator animation) {
+            mNodePlan.onNodeCancel(mIndex);
+        }
+
+        public void onAnimationEnd(Animator animation) {
+            mNodePlan.onNodeEnd(mIndex);
         }
 
+        // Nothing to do
+        public void onAnimationRepeat(Animator animation) {
+        }
     }
 
     /**
-     * This method sorts the current set of nodes, if needed. The sort is a simple
-     * DependencyGraph sort, which goes like this:
-     * - All nodes without dependencies become 'roots'
-     * - while roots list is not null
-     * -   for each root r
-     * -     add r to sorted list
-     * -     remove r as a dependency from any other node
-     * -   any nodes with no dependencies are added to the roots list
+     * Starts the root animations when the start delay of the AnimatorSet has passed, unless
+     * the delay was canceled.
      */
-    private void sortNodes() {
-        if (mNeedsSort) {
-            mSortedNodes.clear();
-            ArrayList<Node> roots = new ArrayList<Node>();
-            int numNodes = mNodes.size();
-            for (int i = 0; i < numNodes; ++i) {
-                Node node = mNodes.get(i);
-                if (node.dependencies == null || node.dependencies.size() == 0) {
-                    roots.add(node);
-                }
-            }
-            ArrayList<Node> tmpRoots = new ArrayList<Node>();
-            while (roots.size() > 0) {
-                int numRoots = roots.size();
-                for (int i = 0; i < numRoots; ++i) {
-                    Node root = roots.get(i);
-                    mSortedNodes.add(root);
-                    if (root.nodeDependents != null) {
-                        int numDependents = root.nodeDependents.size();
-                        for (int j = 0; j < numDependents; ++j) {
-                            Node node = root.nodeDependents.get(j);
-                            node.nodeDependencies.remove(root);
-                            if (node.nodeDependencies.size() == 0) {
-                                tmpRoots.add(node);
-                            }
-                        }
-                    }
-                }
-                roots.clear();
-                roots.addAll(tmpRoots);
-                tmpRoots.clear();
-            }
-            mNeedsSort = false;
-            if (mSortedNodes.size() != mNodes.size()) {
-                throw new IllegalStateException("Circular dependencies cannot exist"
-                        + " in AnimatorSet");
-            }
-        } else {
-            // Doesn't need sorting, but still need to add in the nodeDependencies list
-            // because these get removed as the event listeners fire and the dependencies
-            // are satisfied
-            int numNodes = mNodes.size();
-            for (int i = 0; i < numNodes; ++i) {
-                Node node = mNodes.get(i);
-                if (node.dependencies != null && node.dependencies.size() > 0) {
-                    int numDependencies = node.dependencies.size();
-                    for (int j = 0; j < numDependencies; ++j) {
-                        Dependency dependency = node.dependencies.get(j);
-                        if (node.nodeDependencies == null) {
-                            node.nodeDependencies = new ArrayList<Node>();
-                        }
-                        if (!node.nodeDependencies.contains(dependency.node)) {
-                            node.nodeDependencies.add(dependency.node);
-                        }
-                    }
-                }
-                // nodes are 'done' by default; they become un-done when started, and done
-                // again when ended
-                node.done = false;
+    private class DelayListener extends AnimatorListenerAdapter {
+        private boolean mCanceled;
+
+        @Override
+        public void onAnimationStart(Animator anim) {
+            mCanceled = false;
+        }
+
+        @Override
+        public void onAnimationCancel(Animator anim) {
+            mCanceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator anim) {
+            if (!mCanceled && mPlan != null) {
+                mPlan.startRoots();
             }
         }
     }
@@ -882,36 +918,19 @@ public final class AnimatorSet extends Animator {
          */
         public ArrayList<Dependency> dependencies = null;
 
-        /**
-         * tmpDependencies is a runtime detail. We use the dependencies list for sorting.
-         * But we also use the list to keep track of when multiple dependencies are satisfied,
-         * but removing each dependency as it is satisfied. We do not want to remove
-         * the dependency itself from the list, because we need to retain that information
-         * if the AnimatorSet is launched in the future. So we create a copy of the dependency
-         * list when the AnimatorSet starts and use this tmpDependencies list to track the
-         * list of satisfied dependencies.
-         */
-        public ArrayList<Dependency> tmpDependencies = null;
-
-        /**
-         * nodeDependencies is just a list of the nodes that this Node is dependent upon.
-         * This information is used in sortNodes(), to determine when a node is a root.
-         */
-        public ArrayList<Node> nodeDependencies = null;
-
         /**
          * nodeDepdendents is the list of nodes that have this node as a dependency. This
          * is a utility field used in sortNodes to facilitate removing this node as a
-         * dependency when it is a root node.
+         * dependency when it is a root node. A node appears once for each of its dependencies
+         * on this node.
          */
         public ArrayList<Node> nodeDependents = null;
 
         /**
-         * Flag indicating whether the animation in this node is finished. This flag
-         * is used by AnimatorSet to check, as each animation ends, whether all child animations
-         * are done and it's time to send out an end event for the entire AnimatorSet.
+         * The position of this node in the plan it was last compiled into, which is its
+         * position in mSortedNodes once sorting has finished.
          */
-        public boolean done = false;
+        public int planIndex = 0;
 
         /**
          * Constructs the Node with the animation that it encapsulates. A Node has no
@@ -932,12 +951,8 @@ public final class AnimatorSet extends Animator {
         public void addDependency(Dependency dependency) {
             if (dependencies == null) {
                 dependencies = new ArrayList<Dependency>();
-                nodeDependencies = new ArrayList<Node>();
             }
             dependencies.add(dependency);
-            if (!nodeDependencies.contains(dependency.node)) {
-                nodeDependencies.add(dependency.node);
-            }
             Node dependencyNode = dependency.node;
             if (dependencyNode.nodeDependents == null) {
                 dependencyNode.nodeDependents = new ArrayList<Node>();
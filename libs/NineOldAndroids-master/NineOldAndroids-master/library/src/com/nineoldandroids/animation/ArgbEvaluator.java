@@ -39,13 +39,19 @@ public class ArgbEvaluator implements TypeEvaluator {
      * resulting values in the same way.
      */
     public Object evaluate(float fraction, Object startValue, Object endValue) {
-        int startInt = (Integer) startValue;
+        return evaluateArgb(fraction, (Integer) startValue, (Integer) endValue);
+    }
+
+    /**
+     * Primitive version of {@link #evaluate(float, Object, Object)}, used by IntKeyframeSet to
+     * interpolate colors without boxing.
+     */
+    static int evaluateArgb(float fraction, int startInt, int endInt) {
         int startA = (startInt >> 24);
         int startR = (startInt >> 16) & 0xff;
         int startG = (startInt >> 8) & 0xff;
         int startB = startInt & 0xff;
 
-        int endInt = (Integer) endValue;
         int endA = (endInt >> 24);
         int endR = (endInt >> 16) & 0xff;
         int endG = (endInt >> 8) & 0xff;
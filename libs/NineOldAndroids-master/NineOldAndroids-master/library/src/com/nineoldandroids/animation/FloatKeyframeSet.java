@@ -31,12 +31,16 @@ import java.util.ArrayList;
  * int, exists to speed up the getValue() method when there is no custom
  * TypeEvaluator set for the animation, so that values can be calculated without autoboxing to the
  * Object equivalents of these primitive types.</p>
+ *
+ * <p>Keyframe values and interpolators are copied into arrays when values are first calculated,
+ * so getFloatValue() finds the interval for a fraction with a binary search and does not
+ * allocate.</p>
  */
 class FloatKeyframeSet extends KeyframeSet {
-    private float firstValue;
-    private float lastValue;
-    private float deltaValue;
-    private boolean firstTime = true;
+    private float[] mValues;
+    private Interpolator[] mInterpolators;
+    // True when values can be interpolated without going through a boxing TypeEvaluator
+    private boolean mPrimitiveEvaluator = true;
 
     public FloatKeyframeSet(FloatKeyframe... keyframes) {
         super(keyframes);
@@ -47,6 +51,20 @@ class FloatKeyframeSet extends KeyframeSet {
         return getFloatValue(fraction);
     }
 
+    @Override
+    public void setEvaluator(TypeEvaluator evaluator) {
+        super.setEvaluator(evaluator);
+        mPrimitiveEvaluator = evaluator == null || evaluator.getClass() == FloatEvaluator.class;
+    }
+
+    /**
+     * Returns whether values are interpolated without a custom TypeEvaluator, which makes them
+     * safe to calculate away from the thread running the animation.
+     */
+    boolean hasPrimitiveEvaluator() {
+        return mPrimitiveEvaluator;
+    }
+
     @Override
     public FloatKeyframeSet clone() {
         ArrayList<Keyframe> keyframes = mKeyframes;
@@ -59,78 +77,57 @@ class FloatKeyframeSet extends KeyframeSet {
         return newSet;
     }
 
+    @Override
+    void cacheKeyframes() {
+        super.cacheKeyframes();
+        float[] values = new float[mNumKeyframes];
+        Interpolator[] interpolators = new Interpolator[mNumKeyframes];
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            FloatKeyframe keyframe = (FloatKeyframe) mKeyframes.get(i);
+            values[i] = keyframe.getFloatValue();
+            interpolators[i] = keyframe.getInterpolator();
+        }
+        mValues = values;
+        mInterpolators = interpolators;
+    }
+
     public float getFloatValue(float fraction) {
+        if (mFractions == null) {
+            cacheKeyframes();
+        }
+        final float[] values = mValues;
         if (mNumKeyframes == 2) {
-            if (firstTime) {
-                firstTime = false;
-                firstValue = ((FloatKeyframe) mKeyframes.get(0)).getFloatValue();
-                lastValue = ((FloatKeyframe) mKeyframes.get(1)).getFloatValue();
-                deltaValue = lastValue - firstValue;
-            }
             if (mInterpolator != null) {
                 fraction = mInterpolator.getInterpolation(fraction);
             }
-            if (mEvaluator == null) {
-                return firstValue + fraction * deltaValue;
-            } else {
-                return ((Number)mEvaluator.evaluate(fraction, firstValue, lastValue)).floatValue();
-            }
+            return evaluate(fraction, values[0], values[1]);
         }
+        int next;
         if (fraction <= 0f) {
-            final FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(0);
-            final FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(1);
-            float prevValue = prevKeyframe.getFloatValue();
-            float nextValue = nextKeyframe.getFloatValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + intervalFraction * (nextValue - prevValue) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            floatValue();
+            next = 1;
         } else if (fraction >= 1f) {
-            final FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(mNumKeyframes - 2);
-            final FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(mNumKeyframes - 1);
-            float prevValue = prevKeyframe.getFloatValue();
-            float nextValue = nextKeyframe.getFloatValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
+            next = mNumKeyframes - 1;
+        } else {
+            next = findNextKeyframe(fraction);
+            if (next == mNumKeyframes) {
+                // shouldn't get here
+                return values[mNumKeyframes - 1];
             }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + intervalFraction * (nextValue - prevValue) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            floatValue();
         }
-        FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(0);
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                float intervalFraction = (fraction - prevKeyframe.getFraction()) /
-                    (nextKeyframe.getFraction() - prevKeyframe.getFraction());
-                float prevValue = prevKeyframe.getFloatValue();
-                float nextValue = nextKeyframe.getFloatValue();
-                return mEvaluator == null ?
-                        prevValue + intervalFraction * (nextValue - prevValue) :
-                        ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            floatValue();
-            }
-            prevKeyframe = nextKeyframe;
+        final /*Time*/Interpolator interpolator = mInterpolators[next];
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
         }
-        // shouldn't get here
-        return ((Number)mKeyframes.get(mNumKeyframes - 1).getValue()).floatValue();
+        final float prevFraction = mFractions[next - 1];
+        float intervalFraction = (fraction - prevFraction) / (mFractions[next] - prevFraction);
+        return evaluate(intervalFraction, values[next - 1], values[next]);
     }
 
-}
+    private float evaluate(float fraction, float startValue, float endValue) {
+        if (mPrimitiveEvaluator) {
+            return startValue + fraction * (endValue - startValue);
+        }
+        return ((Number)mEvaluator.evaluate(fraction, startValue, endValue)).floatValue();
+    }
 
+}
@@ -0,0 +1,145 @@
+package com.nineoldandroids.animation;
+
+import android.os.Build;
+import android.os.Handler;
+import android.view.Choreographer;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Source of the timing pulse which drives all of the animations running on a thread.
+ *
+ * <p>By default animators use a clock which is aligned to the display's vsync through
+ * {@link Choreographer} on Jelly Bean and newer, and a {@link Handler} which ticks every
+ * {@link ValueAnimator#getFrameDelay() frame delay} milliseconds on older versions. A different
+ * clock, such as {@link ManualFrameClock} for tests, can be installed on a thread with
+ * {@link ValueAnimator#setFrameClock(FrameClock)}.</p>
+ *
+ * <p>Clocks are only used from the thread which they were installed on.</p>
+ */
+public abstract class FrameClock {
+    /** Callback which receives the next timing pulse of a {@link FrameClock}. */
+    public interface FrameCallback {
+        /**
+         * Called once per frame that the callback was posted for.
+         *
+         * @param frameTimeMillis The time at which the frame started, in the time base of
+         * {@link FrameClock#currentTimeMillis()}.
+         */
+        void doFrame(long frameTimeMillis);
+    }
+
+    /**
+     * Returns the current time in milliseconds. Frame times passed to
+     * {@link FrameCallback#doFrame(long)} use the same time base.
+     */
+    public abstract long currentTimeMillis();
+
+    /**
+     * Requests a single call to the given callback on the next frame. All animations on a thread
+     * share one callback, so clocks only keep track of one: posting a callback replaces any
+     * callback which is still pending.
+     */
+    public abstract void postFrameCallback(FrameCallback callback);
+
+    /** Removes a callback posted with {@link #postFrameCallback(FrameCallback)}. */
+    public abstract void removeFrameCallback(FrameCallback callback);
+
+    /**
+     * Creates the default clock for the calling thread, which must have a
+     * {@link android.os.Looper}.
+     */
+    static FrameClock createDefault() {
+        final int version = Integer.valueOf(Build.VERSION.SDK);
+        if (version >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new ChoreographerFrameClock();
+        }
+        return new HandlerFrameClock();
+    }
+
+    /** Ticks every {@link ValueAnimator#getFrameDelay()} milliseconds on a {@link Handler}. */
+    static final class HandlerFrameClock extends FrameClock implements Runnable {
+        private final Handler mHandler = new Handler();
+        private FrameCallback mCallback;
+        private long mLastFrameTime = -1;
+
+        @Override
+        public long currentTimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        @Override
+        public void postFrameCallback(FrameCallback callback) {
+            boolean pending = mCallback != null;
+            mCallback = callback;
+            if (pending) {
+                return;
+            }
+            // Keep the requested frame delay between the starts of consecutive frames, and run
+            // the first frame after an idle period right away.
+            long delay = 0;
+            if (mLastFrameTime >= 0) {
+                delay = Math.max(0, mLastFrameTime + ValueAnimator.getFrameDelay()
+                        - currentTimeMillis());
+            }
+            mHandler.postDelayed(this, delay);
+        }
+
+        @Override
+        public void removeFrameCallback(FrameCallback callback) {
+            if (mCallback == callback) {
+                mCallback = null;
+                mHandler.removeCallbacks(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            FrameCallback callback = mCallback;
+            mCallback = null;
+            if (callback != null) {
+                mLastFrameTime = currentTimeMillis();
+                callback.doFrame(mLastFrameTime);
+            }
+        }
+    }
+
+    /** Ticks once per display frame, aligned to vsync. The frame delay is ignored. */
+    static final class ChoreographerFrameClock extends FrameClock
+            implements Choreographer.FrameCallback {
+        private static final long NANOS_PER_MS = 1000000;
+
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+        private FrameClock.FrameCallback mCallback;
+
+        @Override
+        public long currentTimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        @Override
+        public void postFrameCallback(FrameClock.FrameCallback callback) {
+            boolean pending = mCallback != null;
+            mCallback = callback;
+            if (!pending) {
+                mChoreographer.postFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void removeFrameCallback(FrameClock.FrameCallback callback) {
+            if (mCallback == callback) {
+                mCallback = null;
+                mChoreographer.removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FrameClock.FrameCallback callback = mCallback;
+            mCallback = null;
+            if (callback != null) {
+                callback.doFrame(frameTimeNanos / NANOS_PER_MS);
+            }
+        }
+    }
+}
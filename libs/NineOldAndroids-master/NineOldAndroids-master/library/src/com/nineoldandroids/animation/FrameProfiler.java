@@ -0,0 +1,214 @@
+package com.nineoldandroids.animation;
+
+/**
+ * Measures where the animation frames of a thread spend their time. Installed on a thread with
+ * {@link ValueAnimator#setFrameProfiler(FrameProfiler)}, it records for every frame:
+ *
+ * <ul>
+ * <li>the time of the whole frame, including starting and ending animations,</li>
+ * <li>the time in the frame step of each animator, which includes the two below,</li>
+ * <li>the time in {@link ValueAnimator.AnimatorUpdateListener update} and end listeners,</li>
+ * <li>the time setting animated properties on the targets of {@link ObjectAnimator}s,</li>
+ * <li>and the number of frames dropped since the previous frame, judging by the frame times
+ * of the {@link FrameClock} against the expected frame interval.</li>
+ * </ul>
+ *
+ * <p>Totals and maximums are kept until {@link #reset()}; subclasses can also see each frame
+ * by overriding {@link #onFrame}. The profiler adds a few clock reads per animator and frame,
+ * so it is cheap enough to switch on in the field. Without one, the frame loop pays a single
+ * static field read per hook, as long as no other thread has a profiler either; remove the
+ * profiler with {@code setFrameProfiler(null)} when done.</p>
+ *
+ * <p>With a {@link ManualFrameClock} the frames and drop counts are reproducible; durations
+ * can be made so as well by overriding {@link #nanoTime()}. A profiler must only be used on
+ * the thread it was installed on.</p>
+ */
+public class FrameProfiler {
+    /** The expected time between frames used by default: one 60 Hz display frame. */
+    public static final long DEFAULT_FRAME_INTERVAL_MILLIS = 16;
+
+    private final long mFrameIntervalMillis;
+
+    // Totals since the last reset
+    private int mFrameCount;
+    private int mDroppedFrameCount;
+    private long mAnimatorFrameCount;
+    private long mFrameNanos;
+    private long mAnimationNanos;
+    private long mListenerNanos;
+    private long mSetterNanos;
+    private long mMaxFrameNanos;
+
+    // The current frame
+    boolean mInFrame;
+    private long mFrameTimeMillis;
+    private long mFrameStartNanos;
+    private long mCurrentAnimationNanos;
+    private long mCurrentListenerNanos;
+    private long mCurrentSetterNanos;
+    private int mCurrentAnimatorFrames;
+    private int mCurrentDroppedFrames;
+
+    // Frame time of the previous frame, if it asked for this one, or -1
+    private long mLastFrameTimeMillis = -1;
+
+    /** Creates a profiler expecting {@link #DEFAULT_FRAME_INTERVAL_MILLIS} between frames. */
+    public FrameProfiler() {
+        this(DEFAULT_FRAME_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Creates a profiler.
+     *
+     * @param frameIntervalMillis The expected time between frames. Longer gaps between frames
+     * of running animations are counted as dropped frames.
+     */
+    public FrameProfiler(long frameIntervalMillis) {
+        if (frameIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Frame interval must be positive: " +
+                    frameIntervalMillis);
+        }
+        mFrameIntervalMillis = frameIntervalMillis;
+    }
+
+    /** Clears all of the totals. */
+    public void reset() {
+        mFrameCount = 0;
+        mDroppedFrameCount = 0;
+        mAnimatorFrameCount = 0;
+        mFrameNanos = 0;
+        mAnimationNanos = 0;
+        mListenerNanos = 0;
+        mSetterNanos = 0;
+        mMaxFrameNanos = 0;
+    }
+
+    /** Returns the number of frames recorded. */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /** Returns the number of frames missed between recorded frames. */
+    public int getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    /** Returns the number of times an animator ran its frame step. */
+    public long getAnimatorFrameCount() {
+        return mAnimatorFrameCount;
+    }
+
+    /** Returns the total time of all frames, in nanoseconds. */
+    public long getFrameNanos() {
+        return mFrameNanos;
+    }
+
+    /** Returns the time of the longest frame, in nanoseconds. */
+    public long getMaxFrameNanos() {
+        return mMaxFrameNanos;
+    }
+
+    /**
+     * Returns the time spent in the frame steps of animators, in nanoseconds. This includes
+     * the update listeners and property setters that they call.
+     */
+    public long getAnimationNanos() {
+        return mAnimationNanos;
+    }
+
+    /** Returns the time spent in update and end listeners during frames, in nanoseconds. */
+    public long getListenerNanos() {
+        return mListenerNanos;
+    }
+
+    /** Returns the time spent setting properties during frames, in nanoseconds. */
+    public long getSetterNanos() {
+        return mSetterNanos;
+    }
+
+    /**
+     * Called at the end of each frame with its measurements. Does nothing by default.
+     *
+     * @param frameTimeMillis The frame time given by the {@link FrameClock}.
+     * @param frameNanos The time of the whole frame.
+     * @param animationNanos The time in the frame steps of animators.
+     * @param listenerNanos The time in listeners.
+     * @param setterNanos The time in property setters.
+     * @param animatorFrames The number of animators which ran their frame step.
+     * @param droppedFrames The number of frames missed since the previous frame.
+     */
+    protected void onFrame(long frameTimeMillis, long frameNanos, long animationNanos,
+            long listenerNanos, long setterNanos, int animatorFrames, int droppedFrames) {
+    }
+
+    /** Returns the time used for all measurements. Uses {@link System#nanoTime()}. */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return "FrameProfiler{frames=" + mFrameCount
+                + ", dropped=" + mDroppedFrameCount
+                + ", animatorFrames=" + mAnimatorFrameCount
+                + ", frameMs=" + mFrameNanos / 1e6
+                + ", maxFrameMs=" + mMaxFrameNanos / 1e6
+                + ", animationMs=" + mAnimationNanos / 1e6
+                + ", listenerMs=" + mListenerNanos / 1e6
+                + ", setterMs=" + mSetterNanos / 1e6 + "}";
+    }
+
+    void beginFrame(long frameTimeMillis) {
+        int dropped = 0;
+        if (mLastFrameTimeMillis >= 0) {
+            long gap = frameTimeMillis - mLastFrameTimeMillis;
+            dropped = (int) Math.max(0,
+                    (gap + mFrameIntervalMillis / 2) / mFrameIntervalMillis - 1);
+        }
+        mInFrame = true;
+        mFrameTimeMillis = frameTimeMillis;
+        mCurrentDroppedFrames = dropped;
+        mCurrentAnimationNanos = 0;
+        mCurrentListenerNanos = 0;
+        mCurrentSetterNanos = 0;
+        mCurrentAnimatorFrames = 0;
+        mFrameStartNanos = nanoTime();
+    }
+
+    /**
+     * @param continues Whether the frame asked for another one, so that a late next frame
+     * counts as dropped frames rather than as idle time.
+     */
+    void endFrame(boolean continues) {
+        long frameNanos = nanoTime() - mFrameStartNanos;
+        mInFrame = false;
+        mLastFrameTimeMillis = continues ? mFrameTimeMillis : -1;
+
+        ++mFrameCount;
+        mDroppedFrameCount += mCurrentDroppedFrames;
+        mAnimatorFrameCount += mCurrentAnimatorFrames;
+        mFrameNanos += frameNanos;
+        mMaxFrameNanos = Math.max(mMaxFrameNanos, frameNanos);
+        mAnimationNanos += mCurrentAnimationNanos;
+        mListenerNanos += mCurrentListenerNanos;
+        mSetterNanos += mCurrentSetterNanos;
+        onFrame(mFrameTimeMillis, frameNanos, mCurrentAnimationNanos, mCurrentListenerNanos,
+                mCurrentSetterNanos, mCurrentAnimatorFrames, mCurrentDroppedFrames);
+    }
+
+    /** Adds the time since the given start time to the frame steps of animators. */
+    void addAnimatorFrame(long startNanos) {
+        mCurrentAnimationNanos += nanoTime() - startNanos;
+        ++mCurrentAnimatorFrames;
+    }
+
+    /** Adds the time since the given start time to the listeners. */
+    void addListenerTime(long startNanos) {
+        mCurrentListenerNanos += nanoTime() - startNanos;
+    }
+
+    /** Adds the time since the given start time to the property setters. */
+    void addSetterTime(long startNanos) {
+        mCurrentSetterNanos += nanoTime() - startNanos;
+    }
+}
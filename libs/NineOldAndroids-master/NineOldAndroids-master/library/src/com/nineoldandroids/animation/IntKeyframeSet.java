@@ -31,12 +31,20 @@ import java.util.ArrayList;
  * float, exists to speed up the getValue() method when there is no custom
  * TypeEvaluator set for the animation, so that values can be calculated without autoboxing to the
  * Object equivalents of these primitive types.</p>
+ *
+ * <p>Keyframe values and interpolators are copied into arrays when values are first calculated,
+ * so getIntValue() finds the interval for a fraction with a binary search and does not allocate.
+ * {@link IntEvaluator} and {@link ArgbEvaluator} are evaluated on primitives as well.</p>
  */
 class IntKeyframeSet extends KeyframeSet {
-    private int firstValue;
-    private int lastValue;
-    private int deltaValue;
-    private boolean firstTime = true;
+    private static final int EVALUATOR_NONE = 0;
+    private static final int EVALUATOR_INT = 1;
+    private static final int EVALUATOR_ARGB = 2;
+    private static final int EVALUATOR_OTHER = 3;
+
+    private int[] mValues;
+    private Interpolator[] mInterpolators;
+    private int mEvaluatorType = EVALUATOR_NONE;
 
     public IntKeyframeSet(IntKeyframe... keyframes) {
         super(keyframes);
@@ -47,6 +55,29 @@ class IntKeyframeSet extends KeyframeSet {
         return getIntValue(fraction);
     }
 
+    @Override
+    public void setEvaluator(TypeEvaluator evaluator) {
+        super.setEvaluator(evaluator);
+        // Subclasses of the known evaluators may override evaluate(), so only match exact classes
+        if (evaluator == null) {
+            mEvaluatorType = EVALUATOR_NONE;
+        } else if (evaluator.getClass() == IntEvaluator.class) {
+            mEvaluatorType = EVALUATOR_INT;
+        } else if (evaluator.getClass() == ArgbEvaluator.class) {
+            mEvaluatorType = EVALUATOR_ARGB;
+        } else {
+            mEvaluatorType = EVALUATOR_OTHER;
+        }
+    }
+
+    /**
+     * Returns whether values are interpolated without a custom TypeEvaluator, which makes them
+     * safe to calculate away from the thread running the animation.
+     */
+    boolean hasPrimitiveEvaluator() {
+        return mEvaluatorType != EVALUATOR_OTHER;
+    }
+
     @Override
     public IntKeyframeSet clone() {
         ArrayList<Keyframe> keyframes = mKeyframes;
@@ -59,77 +90,63 @@ class IntKeyframeSet extends KeyframeSet {
         return newSet;
     }
 
+    @Override
+    void cacheKeyframes() {
+        super.cacheKeyframes();
+        int[] values = new int[mNumKeyframes];
+        Interpolator[] interpolators = new Interpolator[mNumKeyframes];
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            IntKeyframe keyframe = (IntKeyframe) mKeyframes.get(i);
+            values[i] = keyframe.getIntValue();
+            interpolators[i] = keyframe.getInterpolator();
+        }
+        mValues = values;
+        mInterpolators = interpolators;
+    }
+
     public int getIntValue(float fraction) {
+        if (mFractions == null) {
+            cacheKeyframes();
+        }
+        final int[] values = mValues;
         if (mNumKeyframes == 2) {
-            if (firstTime) {
-                firstTime = false;
-                firstValue = ((IntKeyframe) mKeyframes.get(0)).getIntValue();
-                lastValue = ((IntKeyframe) mKeyframes.get(1)).getIntValue();
-                deltaValue = lastValue - firstValue;
-            }
             if (mInterpolator != null) {
                 fraction = mInterpolator.getInterpolation(fraction);
             }
-            if (mEvaluator == null) {
-                return firstValue + (int)(fraction * deltaValue);
-            } else {
-                return ((Number)mEvaluator.evaluate(fraction, firstValue, lastValue)).intValue();
-            }
+            return evaluate(fraction, values[0], values[1]);
         }
+        int next;
         if (fraction <= 0f) {
-            final IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(0);
-            final IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(1);
-            int prevValue = prevKeyframe.getIntValue();
-            int nextValue = nextKeyframe.getIntValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            intValue();
+            next = 1;
         } else if (fraction >= 1f) {
-            final IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(mNumKeyframes - 2);
-            final IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(mNumKeyframes - 1);
-            int prevValue = prevKeyframe.getIntValue();
-            int nextValue = nextKeyframe.getIntValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
+            next = mNumKeyframes - 1;
+        } else {
+            next = findNextKeyframe(fraction);
+            if (next == mNumKeyframes) {
+                // shouldn't get here
+                return values[mNumKeyframes - 1];
             }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).intValue();
         }
-        IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(0);
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                float intervalFraction = (fraction - prevKeyframe.getFraction()) /
-                    (nextKeyframe.getFraction() - prevKeyframe.getFraction());
-                int prevValue = prevKeyframe.getIntValue();
-                int nextValue = nextKeyframe.getIntValue();
-                return mEvaluator == null ?
-                        prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                        ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                                intValue();
-            }
-            prevKeyframe = nextKeyframe;
+        final /*Time*/Interpolator interpolator = mInterpolators[next];
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
         }
-        // shouldn't get here
-        return ((Number)mKeyframes.get(mNumKeyframes - 1).getValue()).intValue();
+        final float prevFraction = mFractions[next - 1];
+        float intervalFraction = (fraction - prevFraction) / (mFractions[next] - prevFraction);
+        return evaluate(intervalFraction, values[next - 1], values[next]);
     }
 
-}
+    private int evaluate(float fraction, int startValue, int endValue) {
+        switch (mEvaluatorType) {
+            case EVALUATOR_NONE:
+                return startValue + (int)(fraction * (endValue - startValue));
+            case EVALUATOR_INT:
+                return (int)(startValue + fraction * (endValue - startValue));
+            case EVALUATOR_ARGB:
+                return ArgbEvaluator.evaluateArgb(fraction, startValue, endValue);
+            default:
+                return ((Number)mEvaluator.evaluate(fraction, startValue, endValue)).intValue();
+        }
+    }
 
+}
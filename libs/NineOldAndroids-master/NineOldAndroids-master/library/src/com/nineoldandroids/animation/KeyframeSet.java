@@ -40,6 +40,10 @@ class KeyframeSet {
     ArrayList<Keyframe> mKeyframes; // only used when there are not 2 keyframes
     TypeEvaluator mEvaluator;
 
+    // Keyframe fractions, copied out of mKeyframes when values are first calculated so that the
+    // interval for a given fraction can be found with a binary search. Cleared when keyframe
+    // values are filled in from the target, so that subclasses can snapshot their values again.
+    float[] mFractions;
 
     public KeyframeSet(Keyframe... keyframes) {
         mNumKeyframes = keyframes.length;
@@ -139,6 +143,47 @@ class KeyframeSet {
         mEvaluator = evaluator;
     }
 
+    /**
+     * Discards anything copied out of the keyframes, so that changes made to them through
+     * {@link Keyframe#setValue(Object)} are picked up the next time a value is calculated.
+     */
+    void invalidateCache() {
+        mFractions = null;
+    }
+
+    /**
+     * Copies the keyframe fractions into {@link #mFractions}. Subclasses which keep primitive
+     * copies of the keyframe values extend this to fill those in at the same time.
+     */
+    void cacheKeyframes() {
+        float[] fractions = new float[mNumKeyframes];
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            fractions[i] = mKeyframes.get(i).getFraction();
+        }
+        mFractions = fractions;
+    }
+
+    /**
+     * Returns the index of the keyframe which ends the interval containing the given fraction:
+     * the first keyframe after the first one whose fraction is greater than the given fraction,
+     * or mNumKeyframes if there is none. Keyframes are ordered by fraction, so this is found
+     * in O(log n).
+     */
+    int findNextKeyframe(float fraction) {
+        final float[] fractions = mFractions;
+        int low = 1;
+        int high = mNumKeyframes - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (fraction < fractions[mid]) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
     @Override
     public KeyframeSet clone() {
         ArrayList<Keyframe> keyframes = mKeyframes;
@@ -173,47 +218,31 @@ class KeyframeSet {
             return mEvaluator.evaluate(fraction, mFirstKeyframe.getValue(),
                     mLastKeyframe.getValue());
         }
+        if (mFractions == null) {
+            cacheKeyframes();
+        }
+        int next;
         if (fraction <= 0f) {
-            final Keyframe nextKeyframe = mKeyframes.get(1);
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            final float prevFraction = mFirstKeyframe.getFraction();
-            float intervalFraction = (fraction - prevFraction) /
-                (nextKeyframe.getFraction() - prevFraction);
-            return mEvaluator.evaluate(intervalFraction, mFirstKeyframe.getValue(),
-                    nextKeyframe.getValue());
+            next = 1;
         } else if (fraction >= 1f) {
-            final Keyframe prevKeyframe = mKeyframes.get(mNumKeyframes - 2);
-            final /*Time*/Interpolator interpolator = mLastKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
+            next = mNumKeyframes - 1;
+        } else {
+            next = findNextKeyframe(fraction);
+            if (next == mNumKeyframes) {
+                // shouldn't reach here
+                return mLastKeyframe.getValue();
             }
-            final float prevFraction = prevKeyframe.getFraction();
-            float intervalFraction = (fraction - prevFraction) /
-                (mLastKeyframe.getFraction() - prevFraction);
-            return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
-                    mLastKeyframe.getValue());
         }
-        Keyframe prevKeyframe = mFirstKeyframe;
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            Keyframe nextKeyframe = mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                final float prevFraction = prevKeyframe.getFraction();
-                float intervalFraction = (fraction - prevFraction) /
-                    (nextKeyframe.getFraction() - prevFraction);
-                return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
-                        nextKeyframe.getValue());
-            }
-            prevKeyframe = nextKeyframe;
+        final Keyframe prevKeyframe = mKeyframes.get(next - 1);
+        final Keyframe nextKeyframe = mKeyframes.get(next);
+        final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
         }
-        // shouldn't reach here
-        return mLastKeyframe.getValue();
+        final float prevFraction = mFractions[next - 1];
+        float intervalFraction = (fraction - prevFraction) / (mFractions[next] - prevFraction);
+        return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
+                nextKeyframe.getValue());
     }
 
     @Override
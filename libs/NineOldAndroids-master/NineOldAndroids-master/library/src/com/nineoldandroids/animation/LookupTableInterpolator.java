@@ -0,0 +1,192 @@
+package com.nineoldandroids.animation;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.CycleInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * An interpolator which samples another interpolator into a table once, and then looks values
+ * up in the table with linear interpolation between samples. This replaces calls to
+ * {@link Math#pow(double, double)} or {@link Math#cos(double)} in interpolators such as
+ * {@link AccelerateDecelerateInterpolator} with an array read on every frame.
+ *
+ * <p>The table starts with {@value #MIN_SEGMENTS} segments and is doubled until the lookup is
+ * within the requested error of the wrapped interpolator, measured at points between the
+ * samples, or until it has {@value #MAX_SEGMENTS} segments. Inputs outside of [0, 1] are
+ * passed to the wrapped interpolator.</p>
+ *
+ * <p>{@link ValueAnimator} and its subclasses, including the animators loaded by
+ * {@link AnimatorInflater}, and {@link com.nineoldandroids.view.ViewPropertyGroupAnimator} run
+ * the framework interpolators which use these functions through a table with the
+ * {@link #DEFAULT_MAX_ERROR default error}. The table is used for the frames only;
+ * {@link ValueAnimator#getInterpolator()} still returns the interpolator which was set.
+ * Interpolators with jumps in their output may not reach the requested error.</p>
+ */
+public class LookupTableInterpolator implements Interpolator {
+    /** The error used by animators when they replace interpolators with tables. */
+    public static final float DEFAULT_MAX_ERROR = 0.0001f;
+
+    private static final int MIN_SEGMENTS = 16;
+    private static final int MAX_SEGMENTS = 4096;
+
+    // Stateless framework interpolators which call Math.pow(), Math.cos() or Math.sin(), by exact
+    // class. The overshoot, anticipate and bounce interpolators are plain polynomials which are
+    // no slower than a lookup, so they are left alone.
+    private static final Class<?>[] KNOWN_INTERPOLATORS = {
+        AccelerateInterpolator.class,
+        DecelerateInterpolator.class,
+        AccelerateDecelerateInterpolator.class,
+        CycleInterpolator.class,
+    };
+
+    // Tables of the interpolators wrapped by wrapKnown(), so that animators sharing an
+    // interpolator share its table as well
+    private static final WeakHashMap<Interpolator, WeakReference<LookupTableInterpolator>>
+            sTables = new WeakHashMap<Interpolator, WeakReference<LookupTableInterpolator>>();
+
+    private final Interpolator mSource;
+    private final float[] mValues;
+    private final int mSegments;
+    private final float mError;
+
+    /**
+     * Creates a table for the given interpolator with the {@link #DEFAULT_MAX_ERROR default
+     * error}.
+     */
+    public LookupTableInterpolator(Interpolator source) {
+        this(source, DEFAULT_MAX_ERROR);
+    }
+
+    /**
+     * Creates a table for the given interpolator.
+     *
+     * @param source The interpolator to sample. It is called from the constructor only.
+     * @param maxError The largest difference allowed between the output of the table and the
+     * output of the source interpolator.
+     */
+    public LookupTableInterpolator(Interpolator source, float maxError) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source interpolator cannot be null");
+        }
+        if (!(maxError > 0)) {
+            throw new IllegalArgumentException("Error must be positive: " + maxError);
+        }
+        mSource = source;
+        int segments = MIN_SEGMENTS;
+        float[] values = sample(source, segments);
+        float error = measureError(source, values, segments);
+        while (error > maxError && segments < MAX_SEGMENTS) {
+            segments *= 2;
+            values = sample(source, segments);
+            error = measureError(source, values, segments);
+        }
+        mValues = values;
+        mSegments = segments;
+        mError = error;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (!(input >= 0f && input <= 1f)) {
+            return mSource.getInterpolation(input);
+        }
+        float position = input * mSegments;
+        int index = (int) position;
+        if (index >= mSegments) {
+            return mValues[mSegments];
+        }
+        float start = mValues[index];
+        return start + (position - index) * (mValues[index + 1] - start);
+    }
+
+    /** Returns the interpolator which was sampled into this table. */
+    public Interpolator getSource() {
+        return mSource;
+    }
+
+    /**
+     * Returns the largest difference from the source interpolator found while building the
+     * table. This is above the requested error only if the table reached its maximum size.
+     */
+    public float getError() {
+        return mError;
+    }
+
+    /** Returns the number of samples in the table. */
+    public int getSampleCount() {
+        return mSegments + 1;
+    }
+
+    /**
+     * Returns a table for the given interpolator if it is one of the framework interpolators
+     * known to be stateless and costly, or the interpolator itself otherwise. Tables are shared
+     * by the callers which pass the same interpolator.
+     */
+    public static Interpolator wrapKnown(Interpolator interpolator) {
+        if (interpolator == null || !isKnown(interpolator.getClass()) || isSquare(interpolator)) {
+            return interpolator;
+        }
+        synchronized (sTables) {
+            WeakReference<LookupTableInterpolator> ref = sTables.get(interpolator);
+            LookupTableInterpolator table = ref != null ? ref.get() : null;
+            if (table == null) {
+                table = new LookupTableInterpolator(interpolator);
+                sTables.put(interpolator, new WeakReference<LookupTableInterpolator>(table));
+            }
+            return table;
+        }
+    }
+
+    private static boolean isKnown(Class<?> interpolatorClass) {
+        for (Class<?> known : KNOWN_INTERPOLATORS) {
+            if (interpolatorClass == known) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the given accelerate or decelerate interpolator has the default factor of
+     * 1, in which case it computes a square instead of calling {@link Math#pow(double, double)}
+     * and is faster than a lookup. The factor is private, so it is recognized by its output.
+     */
+    private static boolean isSquare(Interpolator interpolator) {
+        Class<?> interpolatorClass = interpolator.getClass();
+        if (interpolatorClass == AccelerateInterpolator.class) {
+            return interpolator.getInterpolation(0.5f) == 0.25f;
+        }
+        if (interpolatorClass == DecelerateInterpolator.class) {
+            return interpolator.getInterpolation(0.5f) == 0.75f;
+        }
+        return false;
+    }
+
+    private static float[] sample(Interpolator source, int segments) {
+        float[] values = new float[segments + 1];
+        for (int i = 0; i <= segments; ++i) {
+            values[i] = source.getInterpolation((float) i / segments);
+        }
+        return values;
+    }
+
+    /** Compares the table with the source at the quarter points of each segment. */
+    private static float measureError(Interpolator source, float[] values, int segments) {
+        float error = 0;
+        for (int i = 0; i < segments; ++i) {
+            float start = values[i];
+            float delta = values[i + 1] - start;
+            for (int quarter = 1; quarter <= 3; ++quarter) {
+                float offset = quarter / 4f;
+                float expected = source.getInterpolation((i + offset) / segments);
+                error = Math.max(error, Math.abs(expected - (start + offset * delta)));
+            }
+        }
+        return error;
+    }
+}
@@ -0,0 +1,68 @@
+package com.nineoldandroids.animation;
+
+/**
+ * A {@link FrameClock} which only advances when told to. Install it with
+ * {@link ValueAnimator#setFrameClock(FrameClock)} to run animations deterministically, for
+ * example from tests or benchmarks on a plain JVM where there is no {@link android.os.Looper}.
+ *
+ * <pre>
+ * ManualFrameClock clock = new ManualFrameClock();
+ * ValueAnimator.setFrameClock(clock);
+ * animator.start();
+ * clock.advance(16); // Runs one frame, 16ms later.
+ * </pre>
+ */
+public class ManualFrameClock extends FrameClock {
+    private long mTime;
+    private FrameCallback mCallback;
+
+    /** Creates a clock starting at time zero. */
+    public ManualFrameClock() {
+        this(0);
+    }
+
+    /** Creates a clock starting at the given time, in milliseconds. */
+    public ManualFrameClock(long startTimeMillis) {
+        mTime = startTimeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return mTime;
+    }
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        mCallback = callback;
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        if (mCallback == callback) {
+            mCallback = null;
+        }
+    }
+
+    /** Returns whether a callback is waiting for the next frame. */
+    public boolean hasPendingFrame() {
+        return mCallback != null;
+    }
+
+    /** Moves the time forward by the given number of milliseconds and runs a frame. */
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time cannot go backwards: " + millis);
+        }
+        mTime += millis;
+        doFrame();
+    }
+
+    /** Runs a frame at the current time, if a callback is waiting for one. */
+    public void doFrame() {
+        FrameCallback callback = mCallback;
+        mCallback = null;
+        if (callback != null) {
+            callback.doFrame(mTime);
+        }
+    }
+}
@@ -23,8 +23,9 @@ import java.util.Map;
 import android.util.Log;
 import android.view.View;
 
+import com.nineoldandroids.util.FloatProperty;
+import com.nineoldandroids.util.IntProperty;
 import com.nineoldandroids.util.Property;
-import com.nineoldandroids.view.animation.AnimatorProxy;
 
 /**
  * This subclass of {@link ValueAnimator} provides support for animating properties on target objects.
@@ -402,8 +403,13 @@ public final class ObjectAnimator extends ValueAnimator {
         if (!mInitialized) {
             // mValueType may change due to setter/getter setup; do this before calling super.init(),
             // which uses mValueType to set up the default type evaluator.
-            if ((mProperty == null) && AnimatorProxy.NEEDS_PROXY && (mTarget instanceof View) && PROXY_PROPERTIES.containsKey(mPropertyName)) {
-                setProperty(PROXY_PROPERTIES.get(mPropertyName));
+            // Known View properties use typed Property objects instead of reflection on every API
+            // level, which avoids Method.invoke() and boxing on each frame.
+            if ((mProperty == null) && (mTarget instanceof View) && PROXY_PROPERTIES.containsKey(mPropertyName)) {
+                Property property = PROXY_PROPERTIES.get(mPropertyName);
+                if (isTypedPropertyFor(property, mValues[0])) {
+                    setProperty(property);
+                }
             }
             int numValues = mValues.length;
             for (int i = 0; i < numValues; ++i) {
@@ -413,6 +419,21 @@ public final class ObjectAnimator extends ValueAnimator {
         }
     }
 
+    /**
+     * Returns whether the primitive setter of the given property accepts the values calculated by
+     * the given holder. Mismatched types keep using reflection, which reports the missing setter
+     * instead of throwing from within the animation frame.
+     */
+    private static boolean isTypedPropertyFor(Property property, PropertyValuesHolder valuesHolder) {
+        if (property instanceof FloatProperty) {
+            return valuesHolder.mValueType == float.class;
+        }
+        if (property instanceof IntProperty) {
+            return valuesHolder.mValueType == int.class;
+        }
+        return false;
+    }
+
     /**
      * Sets the length of the animation. The default duration is 300 milliseconds.
      *
@@ -489,10 +510,15 @@ public final class ObjectAnimator extends ValueAnimator {
     @Override
     void animateValue(float fraction) {
         super.animateValue(fraction);
+        FrameProfiler profiler = getFrameProfilerInFrame();
+        long startNanos = (profiler != null) ? profiler.nanoTime() : 0;
         int numValues = mValues.length;
         for (int i = 0; i < numValues; ++i) {
             mValues[i].setAnimatedValue(mTarget);
         }
+        if (profiler != null) {
+            profiler.addSetterTime(startNanos);
+        }
     }
 
     @Override
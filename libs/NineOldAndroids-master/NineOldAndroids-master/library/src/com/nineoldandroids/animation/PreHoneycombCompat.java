@@ -4,161 +4,167 @@ import android.view.View;
 import com.nineoldandroids.util.FloatProperty;
 import com.nineoldandroids.util.IntProperty;
 import com.nineoldandroids.util.Property;
-import com.nineoldandroids.view.animation.AnimatorProxy;
-
+import com.nineoldandroids.view.ViewHelper;
+
+/**
+ * Typed {@link Property} objects for the common {@link View} properties. Values go through
+ * {@link ViewHelper}, which uses {@link com.nineoldandroids.view.animation.AnimatorProxy} before
+ * Honeycomb and the native View setters after, so that ObjectAnimator can set them without
+ * reflection or boxing on every API level.
+ */
 final class PreHoneycombCompat {
     static Property<View, Float> ALPHA = new FloatProperty<View>("alpha") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setAlpha(value);
+            ViewHelper.setAlpha(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getAlpha();
+            return ViewHelper.getAlpha(object);
         }
     };
     static Property<View, Float> PIVOT_X = new FloatProperty<View>("pivotX") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setPivotX(value);
+            ViewHelper.setPivotX(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getPivotX();
+            return ViewHelper.getPivotX(object);
         }
     };
     static Property<View, Float> PIVOT_Y = new FloatProperty<View>("pivotY") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setPivotY(value);
+            ViewHelper.setPivotY(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getPivotY();
+            return ViewHelper.getPivotY(object);
         }
     };
     static Property<View, Float> TRANSLATION_X = new FloatProperty<View>("translationX") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setTranslationX(value);
+            ViewHelper.setTranslationX(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getTranslationX();
+            return ViewHelper.getTranslationX(object);
         }
     };
     static Property<View, Float> TRANSLATION_Y = new FloatProperty<View>("translationY") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setTranslationY(value);
+            ViewHelper.setTranslationY(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getTranslationY();
+            return ViewHelper.getTranslationY(object);
         }
     };
     static Property<View, Float> ROTATION = new FloatProperty<View>("rotation") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setRotation(value);
+            ViewHelper.setRotation(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getRotation();
+            return ViewHelper.getRotation(object);
         }
     };
     static Property<View, Float> ROTATION_X = new FloatProperty<View>("rotationX") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setRotationX(value);
+            ViewHelper.setRotationX(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getRotationX();
+            return ViewHelper.getRotationX(object);
         }
     };
     static Property<View, Float> ROTATION_Y = new FloatProperty<View>("rotationY") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setRotationY(value);
+            ViewHelper.setRotationY(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getRotationY();
+            return ViewHelper.getRotationY(object);
         }
     };
     static Property<View, Float> SCALE_X = new FloatProperty<View>("scaleX") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setScaleX(value);
+            ViewHelper.setScaleX(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getScaleX();
+            return ViewHelper.getScaleX(object);
         }
     };
     static Property<View, Float> SCALE_Y = new FloatProperty<View>("scaleY") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setScaleY(value);
+            ViewHelper.setScaleY(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getScaleY();
+            return ViewHelper.getScaleY(object);
         }
     };
     static Property<View, Integer> SCROLL_X = new IntProperty<View>("scrollX") {
         @Override
         public void setValue(View object, int value) {
-            AnimatorProxy.wrap(object).setScrollX(value);
+            object.scrollTo(value, object.getScrollY());
         }
 
         @Override
         public Integer get(View object) {
-            return AnimatorProxy.wrap(object).getScrollX();
+            return object.getScrollX();
         }
     };
     static Property<View, Integer> SCROLL_Y = new IntProperty<View>("scrollY") {
         @Override
         public void setValue(View object, int value) {
-            AnimatorProxy.wrap(object).setScrollY(value);
+            object.scrollTo(object.getScrollX(), value);
         }
 
         @Override
         public Integer get(View object) {
-            return AnimatorProxy.wrap(object).getScrollY();
+            return object.getScrollY();
         }
     };
     static Property<View, Float> X = new FloatProperty<View>("x") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setX(value);
+            ViewHelper.setX(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getX();
+            return ViewHelper.getX(object);
         }
     };
     static Property<View, Float> Y = new FloatProperty<View>("y") {
         @Override
         public void setValue(View object, float value) {
-            AnimatorProxy.wrap(object).setY(value);
+            ViewHelper.setY(object, value);
         }
 
         @Override
         public Float get(View object) {
-            return AnimatorProxy.wrap(object).getY();
+            return ViewHelper.getY(object);
         }
     };
 
@@ -20,8 +20,7 @@ import android.util.Log;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.nineoldandroids.util.FloatProperty;
 import com.nineoldandroids.util.IntProperty;
@@ -97,14 +96,26 @@ public class PropertyValuesHolder implements Cloneable {
     // These maps hold all property entries for a particular class. This map
     // is used to speed up property/setter/getter lookups for a given class/property
     // combination. No need to use reflection on the combination more than once.
-    private static final HashMap<Class, HashMap<String, Method>> sSetterPropertyMap =
-            new HashMap<Class, HashMap<String, Method>>();
-    private static final HashMap<Class, HashMap<String, Method>> sGetterPropertyMap =
-            new HashMap<Class, HashMap<String, Method>>();
+    // Entries are only ever added, so the maps are read without locking. Properties that
+    // do not exist on a class are cached as NO_METHOD so that they are not searched for again.
+    private static final ConcurrentHashMap<Class, ConcurrentHashMap<String, Method>>
+            sSetterPropertyMap = new ConcurrentHashMap<Class, ConcurrentHashMap<String, Method>>();
+    private static final ConcurrentHashMap<Class, ConcurrentHashMap<String, Method>>
+            sGetterPropertyMap = new ConcurrentHashMap<Class, ConcurrentHashMap<String, Method>>();
 
-    // This lock is used to ensure that only one thread is accessing the property maps
-    // at a time.
-    final ReentrantReadWriteLock mPropertyMapLock = new ReentrantReadWriteLock();
+    // Sentinel for a cached lookup which found no method, since the maps cannot hold null.
+    private static final Method NO_METHOD;
+
+    static {
+        try {
+            NO_METHOD = PropertyValuesHolder.class.getDeclaredMethod("noMethod");
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void noMethod() {
+    }
 
     // Used to pass single value to varargs parameter in setter invocation
     final Object[] mTmpValueArray = new Object[1];
@@ -452,28 +463,35 @@ public class PropertyValuesHolder implements Cloneable {
      * @return Method the method associated with mPropertyName.
      */
     private Method setupSetterOrGetter(Class targetClass,
-            HashMap<Class, HashMap<String, Method>> propertyMapMap,
+            ConcurrentHashMap<Class, ConcurrentHashMap<String, Method>> propertyMapMap,
             String prefix, Class valueType) {
-        Method setterOrGetter = null;
-        try {
-            // Have to lock property map prior to reading it, to guard against
-            // another thread putting something in there after we've checked it
-            // but before we've added an entry to it
-            mPropertyMapLock.writeLock().lock();
-            HashMap<String, Method> propertyMap = propertyMapMap.get(targetClass);
-            if (propertyMap != null) {
-                setterOrGetter = propertyMap.get(mPropertyName);
+        ConcurrentHashMap<String, Method> propertyMap = propertyMapMap.get(targetClass);
+        if (propertyMap == null) {
+            propertyMap = new ConcurrentHashMap<String, Method>();
+            ConcurrentHashMap<String, Method> existing =
+                    propertyMapMap.putIfAbsent(targetClass, propertyMap);
+            if (existing != null) {
+                propertyMap = existing;
             }
-            if (setterOrGetter == null) {
-                setterOrGetter = getPropertyFunction(targetClass, prefix, valueType);
-                if (propertyMap == null) {
-                    propertyMap = new HashMap<String, Method>();
-                    propertyMapMap.put(targetClass, propertyMap);
-                }
-                propertyMap.put(mPropertyName, setterOrGetter);
-            }
-        } finally {
-            mPropertyMapLock.writeLock().unlock();
+        }
+        // Setters are looked up by value type as well, since the same property may be animated
+        // with ints on one holder and floats on another.
+        String key = (valueType == null) ? String.valueOf(mPropertyName)
+                : mPropertyName + '#' + valueType.getName();
+        Method setterOrGetter = propertyMap.get(key);
+        if (setterOrGetter == null) {
+            // Threads racing on the same lookup find the same method, so the first one wins.
+            setterOrGetter = getPropertyFunction(targetClass, prefix, valueType);
+            propertyMap.putIfAbsent(key, (setterOrGetter != null) ? setterOrGetter : NO_METHOD);
+            return setterOrGetter;
+        }
+        if (setterOrGetter == NO_METHOD) {
+            return null;
+        }
+        if (valueType != null) {
+            // getPropertyFunction() changes the value type to suit the setter it found, so do
+            // the same when the setter comes from the cache.
+            mValueType = setterOrGetter.getParameterTypes()[0];
         }
         return setterOrGetter;
     }
@@ -513,11 +531,12 @@ public class PropertyValuesHolder implements Cloneable {
                         kf.setValue(mProperty.get(target));
                     }
                 }
+                mKeyframeSet.invalidateCache();
                 return;
             } catch (ClassCastException e) {
                 Log.e("PropertyValuesHolder","No such property (" + mProperty.getName() +
                         ") on target object " + target + ". Trying reflection instead");
-                mProperty = null;
+                setProperty(null);
             }
         }
         Class targetClass = target.getClass();
@@ -538,6 +557,7 @@ public class PropertyValuesHolder implements Cloneable {
                 }
             }
         }
+        mKeyframeSet.invalidateCache();
     }
 
     /**
@@ -562,6 +582,7 @@ public class PropertyValuesHolder implements Cloneable {
         } catch (IllegalAccessException e) {
             Log.e("PropertyValuesHolder", e.toString());
         }
+        mKeyframeSet.invalidateCache();
     }
 
     /**
@@ -797,6 +818,14 @@ public class PropertyValuesHolder implements Cloneable {
             mIntKeyframeSet = (IntKeyframeSet) mKeyframeSet;
         }
 
+        @Override
+        public void setProperty(Property property) {
+            super.setProperty(property);
+            // Keep the primitive fast path in sync so that setAnimatedValue() does not fall back
+            // to the boxing Property.set() for properties assigned after construction.
+            mIntProperty = (property instanceof IntProperty) ? (IntProperty) property : null;
+        }
+
         @Override
         void calculateValue(float fraction) {
             mIntAnimatedValue = mIntKeyframeSet.getIntValue(fraction);
@@ -933,6 +962,14 @@ public class PropertyValuesHolder implements Cloneable {
             mFloatKeyframeSet = (FloatKeyframeSet) mKeyframeSet;
         }
 
+        @Override
+        public void setProperty(Property property) {
+            super.setProperty(property);
+            // Keep the primitive fast path in sync so that setAnimatedValue() does not fall back
+            // to the boxing Property.set() for properties assigned after construction.
+            mFloatProperty = (property instanceof FloatProperty) ? (FloatProperty) property : null;
+        }
+
         @Override
         void calculateValue(float fraction) {
             mFloatAnimatedValue = mFloatKeyframeSet.getFloatValue(fraction);
@@ -0,0 +1,383 @@
+package com.nineoldandroids.animation;
+
+/**
+ * An animator which moves a batch of float values with springs and flings instead of a
+ * duration and an interpolator. It runs on the same frame pulse as every other
+ * {@link ValueAnimator}, and reports to the same {@link Animator.AnimatorListener listeners}
+ * and {@link ValueAnimator.AnimatorUpdateListener update listeners}.
+ *
+ * <p>Each value of the batch is either pulled towards a target by a spring, or slowed down by
+ * friction after a fling. Changing the target of a moving value keeps its position and
+ * velocity, so the motion stays continuous and nothing has to be restarted. All values share
+ * the spring and friction settings and are stepped together, so one animator can drive many
+ * items, such as the rows of a list:</p>
+ *
+ * <pre>
+ * final SpringAnimator springs = new SpringAnimator(rows.size());
+ * springs.addUpdateListener(new AnimatorUpdateListener() {
+ *     public void onAnimationUpdate(ValueAnimator animation) {
+ *         for (int i = 0; i < rows.size(); ++i) {
+ *             ViewHelper.setTranslationX(rows.get(i), springs.getValue(i));
+ *         }
+ *     }
+ * });
+ * springs.animateTo(3, 200f);
+ * </pre>
+ *
+ * <p>The motion is integrated in fixed steps of {@value #STEP_MILLIS} milliseconds whatever the
+ * frame rate, so it does not depend on frame timing. The animation ends once every value has
+ * come to rest. {@link #end()} moves springs straight to their targets and stops flings where
+ * they are, and {@link #cancel()} leaves all values where they are. The duration, interpolator,
+ * repeat settings and {@link #reverse()} of {@link ValueAnimator} do not apply.</p>
+ */
+public class SpringAnimator extends ValueAnimator {
+    /** Stiffness of a spring which settles very quickly. */
+    public static final float STIFFNESS_HIGH = 10000f;
+    /** Stiffness of a spring with a medium settling time. This is the default. */
+    public static final float STIFFNESS_MEDIUM = 1500f;
+    /** Stiffness of a slowly settling spring. */
+    public static final float STIFFNESS_LOW = 200f;
+    /** Stiffness of a very slowly settling spring. */
+    public static final float STIFFNESS_VERY_LOW = 50f;
+
+    /** Damping ratio of a spring which does not overshoot. */
+    public static final float DAMPING_RATIO_NO_BOUNCY = 1f;
+    /** Damping ratio of a spring which overshoots a little. */
+    public static final float DAMPING_RATIO_LOW_BOUNCY = 0.75f;
+    /** Damping ratio of a spring which overshoots noticeably. This is the default. */
+    public static final float DAMPING_RATIO_MEDIUM_BOUNCY = 0.5f;
+    /** Damping ratio of a spring which bounces a lot. */
+    public static final float DAMPING_RATIO_HIGH_BOUNCY = 0.2f;
+
+    /** Friction of flings by default, per second. */
+    public static final float DEFAULT_FRICTION = 4.2f;
+
+    /** The time covered by one integration step. */
+    public static final long STEP_MILLIS = 4;
+    private static final float STEP_SECONDS = STEP_MILLIS / 1000f;
+
+    // Frames later than this are treated as if they came this soon, so that a stall does not
+    // make the values jump
+    private static final long MAX_FRAME_MILLIS = 100;
+
+    // Values are at rest when they are this close to their target, and moving at less than
+    // this threshold times VELOCITY_THRESHOLD_MULTIPLIER per second
+    private static final float DEFAULT_REST_THRESHOLD = 0.01f;
+    private static final float VELOCITY_THRESHOLD_MULTIPLIER = 62.5f;
+
+    private static final byte MODE_REST = 0;
+    private static final byte MODE_SPRING = 1;
+    private static final byte MODE_FLING = 2;
+
+    private final int mCount;
+
+    private float mStiffness = STIFFNESS_MEDIUM;
+    private float mDampingRatio = DAMPING_RATIO_MEDIUM_BOUNCY;
+    private float mFriction = DEFAULT_FRICTION;
+    private float mRestThreshold = DEFAULT_REST_THRESHOLD;
+
+    // Derived from the settings above when they change
+    private float mDamping;
+    private float mFlingDecay;
+    private float mVelocityThreshold;
+
+    // State of each value
+    private float[] mPositions;
+    private float[] mVelocities;
+    private float[] mTargets;
+    private byte[] mModes;
+
+    // Indices of the values which are moving, in no particular order
+    private int[] mActive;
+    private int mActiveCount;
+
+    private long mLastFrameTime;
+    private long mPendingMillis;
+
+    /**
+     * Creates an animator for the given number of values, all at rest at zero.
+     */
+    public SpringAnimator(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative: " + count);
+        }
+        mCount = count;
+        mPositions = new float[count];
+        mVelocities = new float[count];
+        mTargets = new float[count];
+        mModes = new byte[count];
+        mActive = new int[count];
+        // No property values, which also keeps the springs out of value precomputation
+        setValues(new PropertyValuesHolder[0]);
+        updateCoefficients();
+    }
+
+    /** Returns the number of values animated. */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Sets the stiffness of the springs. Stiffer springs settle faster.
+     *
+     * @param stiffness A positive stiffness, such as {@link #STIFFNESS_MEDIUM}.
+     */
+    public SpringAnimator setStiffness(float stiffness) {
+        if (!(stiffness > 0)) {
+            throw new IllegalArgumentException("Stiffness must be positive: " + stiffness);
+        }
+        mStiffness = stiffness;
+        updateCoefficients();
+        return this;
+    }
+
+    public float getStiffness() {
+        return mStiffness;
+    }
+
+    /**
+     * Sets how much the springs are damped. Springs with a ratio below 1 overshoot their target
+     * before settling, the more so the lower the ratio.
+     *
+     * @param dampingRatio A non-negative ratio, such as {@link #DAMPING_RATIO_NO_BOUNCY}.
+     */
+    public SpringAnimator setDampingRatio(float dampingRatio) {
+        if (!(dampingRatio >= 0)) {
+            throw new IllegalArgumentException("Damping ratio cannot be negative: " +
+                    dampingRatio);
+        }
+        mDampingRatio = dampingRatio;
+        updateCoefficients();
+        return this;
+    }
+
+    public float getDampingRatio() {
+        return mDampingRatio;
+    }
+
+    /**
+     * Sets the friction which slows down flings. A friction of f reduces the velocity by a
+     * factor of e every 1/f seconds.
+     */
+    public SpringAnimator setFriction(float friction) {
+        if (!(friction > 0)) {
+            throw new IllegalArgumentException("Friction must be positive: " + friction);
+        }
+        mFriction = friction;
+        updateCoefficients();
+        return this;
+    }
+
+    public float getFriction() {
+        return mFriction;
+    }
+
+    /**
+     * Sets how close a value must be to its target to be at rest. Pick the smallest change
+     * which is visible, such as half a pixel for positions. The default is 0.01.
+     */
+    public SpringAnimator setRestThreshold(float threshold) {
+        if (!(threshold > 0)) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        mRestThreshold = threshold;
+        updateCoefficients();
+        return this;
+    }
+
+    public float getRestThreshold() {
+        return mRestThreshold;
+    }
+
+    /** Returns the current value at the given index. */
+    public float getValue(int index) {
+        return mPositions[index];
+    }
+
+    /** Returns the current velocity at the given index, in units per second. */
+    public float getVelocity(int index) {
+        return mVelocities[index];
+    }
+
+    /** Returns the target of the spring at the given index. */
+    public float getTarget(int index) {
+        return mTargets[index];
+    }
+
+    /** Returns whether the value at the given index has stopped moving. */
+    public boolean isAtRest(int index) {
+        return mModes[index] == MODE_REST;
+    }
+
+    /**
+     * Moves the value at the given index without animating it. A spring keeps pulling it
+     * towards its target from the new position.
+     */
+    public void setValue(int index, float value) {
+        mPositions[index] = value;
+        if (mModes[index] == MODE_REST) {
+            mTargets[index] = value;
+        }
+    }
+
+    /**
+     * Sets the velocity of the value at the given index, in units per second. A value at rest
+     * starts a spring towards its current position.
+     */
+    public void setVelocity(int index, float velocity) {
+        mVelocities[index] = velocity;
+        if (mModes[index] == MODE_REST) {
+            mTargets[index] = mPositions[index];
+            activate(index, MODE_SPRING);
+        }
+    }
+
+    /**
+     * Pulls the value at the given index towards a new target with the spring, from its
+     * current position and velocity. This works the same whether or not the value is moving.
+     * The animator must be {@link #start() started} for the value to move; see
+     * {@link #animateTo(int, float)}.
+     */
+    public void setTarget(int index, float target) {
+        mTargets[index] = target;
+        activate(index, MODE_SPRING);
+    }
+
+    /**
+     * Sets a new target like {@link #setTarget(int, float)}, and starts the animator if needed,
+     * including from an end listener, while the animator is still started but has stopped.
+     */
+    public void animateTo(int index, float target) {
+        setTarget(index, target);
+        if (!isStarted() || mEnding) {
+            start();
+        }
+    }
+
+    /**
+     * Lets the value at the given index coast with the given velocity, in units per second,
+     * until friction stops it. The animator must be {@link #start() started} for the value to
+     * move.
+     */
+    public void fling(int index, float velocity) {
+        mVelocities[index] = velocity;
+        activate(index, MODE_FLING);
+    }
+
+    private void activate(int index, byte mode) {
+        if (mModes[index] == MODE_REST) {
+            mActive[mActiveCount++] = index;
+        }
+        mModes[index] = mode;
+    }
+
+    private void updateCoefficients() {
+        mDamping = 2f * mDampingRatio * (float) Math.sqrt(mStiffness);
+        mFlingDecay = (float) Math.exp(-mFriction * STEP_SECONDS);
+        mVelocityThreshold = mRestThreshold * VELOCITY_THRESHOLD_MULTIPLIER;
+    }
+
+    @Override
+    boolean animationFrame(long currentTime) {
+        if (mPlayingState != RUNNING) {
+            // Starting, so there is no time to catch up on yet
+            mPlayingState = RUNNING;
+            mStartTime = currentTime;
+            mLastFrameTime = currentTime;
+            mPendingMillis = 0;
+        } else {
+            mPendingMillis += Math.min(MAX_FRAME_MILLIS, currentTime - mLastFrameTime);
+            mLastFrameTime = currentTime;
+            while (mPendingMillis >= STEP_MILLIS && mActiveCount > 0) {
+                step();
+                mPendingMillis -= STEP_MILLIS;
+            }
+        }
+        notifyUpdateListeners();
+        return mActiveCount == 0;
+    }
+
+    /** Advances every moving value by one step, and drops the ones which came to rest. */
+    private void step() {
+        final float[] positions = mPositions;
+        final float[] velocities = mVelocities;
+        final float[] targets = mTargets;
+        final byte[] modes = mModes;
+        final int[] active = mActive;
+        final float stiffness = mStiffness;
+        final float damping = mDamping;
+        final float decay = mFlingDecay;
+        final float restThreshold = mRestThreshold;
+        final float velocityThreshold = mVelocityThreshold;
+        final float dt = STEP_SECONDS;
+        int numActive = 0;
+        for (int i = 0; i < mActiveCount; ++i) {
+            int index = active[i];
+            float velocity = velocities[index];
+            float position = positions[index];
+            if (modes[index] == MODE_SPRING) {
+                // Semi-implicit Euler: update the velocity first, then move with the new one
+                float target = targets[index];
+                velocity += (-stiffness * (position - target) - damping * velocity) * dt;
+                position += velocity * dt;
+                if (Math.abs(velocity) < velocityThreshold
+                        && Math.abs(position - target) < restThreshold) {
+                    position = target;
+                    velocity = 0;
+                    modes[index] = MODE_REST;
+                }
+            } else {
+                velocity *= decay;
+                position += velocity * dt;
+                if (Math.abs(velocity) < velocityThreshold) {
+                    velocity = 0;
+                    targets[index] = position;
+                    modes[index] = MODE_REST;
+                }
+            }
+            positions[index] = position;
+            velocities[index] = velocity;
+            if (modes[index] != MODE_REST) {
+                active[numActive++] = index;
+            }
+        }
+        mActiveCount = numActive;
+    }
+
+    /**
+     * Called by {@link #end()}: moves springs to their targets and stops flings, whatever the
+     * fraction.
+     */
+    @Override
+    void animateValue(float fraction) {
+        for (int i = 0; i < mActiveCount; ++i) {
+            int index = mActive[i];
+            if (mModes[index] == MODE_SPRING) {
+                mPositions[index] = mTargets[index];
+            } else {
+                mTargets[index] = mPositions[index];
+            }
+            mVelocities[index] = 0;
+            mModes[index] = MODE_REST;
+        }
+        mActiveCount = 0;
+        notifyUpdateListeners();
+    }
+
+    @Override
+    public SpringAnimator clone() {
+        final SpringAnimator anim = (SpringAnimator) super.clone();
+        anim.mPositions = mPositions.clone();
+        anim.mVelocities = mVelocities.clone();
+        anim.mTargets = mTargets.clone();
+        anim.mModes = mModes.clone();
+        anim.mActive = mActive.clone();
+        return anim;
+    }
+
+    @Override
+    public String toString() {
+        return "SpringAnimator@" + Integer.toHexString(hashCode()) + " count=" + mCount
+                + " moving=" + mActiveCount;
+    }
+}
@@ -16,17 +16,20 @@
 
 package com.nineoldandroids.animation;
 
-import android.os.Handler;
 import android.os.Looper;
-import android.os.Message;
 import android.util.AndroidRuntimeException;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.AnimationUtils;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.Executor;
 
 /**
  * This class provides a simple timing engine for running animations
@@ -51,13 +54,6 @@ public class ValueAnimator extends Animator {
      */
     private static final long DEFAULT_FRAME_DELAY = 10;
 
-    /**
-     * Messages sent to timing handler: START is sent when an animation first begins, FRAME is sent
-     * by the handler to itself to process the next animation frame
-     */
-    static final int ANIMATION_START = 0;
-    static final int ANIMATION_FRAME = 1;
-
     /**
      * Values used with internal variable mPlayingState to indicate the current state of an
      * animation.
@@ -84,61 +80,26 @@ public class ValueAnimator extends Animator {
      */
     long mSeekTime = -1;
 
-    // TODO: We access the following ThreadLocal variables often, some of them on every update.
-    // If ThreadLocal access is significantly expensive, we may want to put all of these
-    // fields into a structure sot hat we just access ThreadLocal once to get the reference
-    // to that structure, then access the structure directly for each field.
-
     // The static sAnimationHandler processes the internal timing loop on which all animations
-    // are based
+    // are based. It also holds the per-thread lists of animations, so that they only take a
+    // single ThreadLocal lookup to reach.
     private static ThreadLocal<AnimationHandler> sAnimationHandler =
             new ThreadLocal<AnimationHandler>();
 
-    // The per-thread list of all active animations
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sAnimations =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
-
-    // The per-thread set of animations to be started on the next animation frame
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sPendingAnimations =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
+    // The per-thread clock set through setFrameClock(), or null to use the default clock
+    private static final ThreadLocal<FrameClock> sFrameClock = new ThreadLocal<FrameClock>();
 
-    /**
-     * Internal per-thread collections used to avoid set collisions as animations start and end
-     * while being processed.
-     */
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sDelayedAnims =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
+    // The number of threads with a FrameProfiler, so that the profiling hooks can skip the
+    // ThreadLocal lookup when no thread is being profiled
+    private static volatile int sProfiledThreads = 0;
 
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sEndingAnims =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
-
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sReadyAnims =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
+    // The handlers of the threads with a FrameProfiler, held weakly so that a thread which ends
+    // without clearing its profiler stops being counted once its handler is collected. Guarded
+    // by the AnimationHandler class.
+    private static final HashSet<Reference<AnimationHandler>> sProfiledHandlers =
+            new HashSet<Reference<AnimationHandler>>();
+    private static final ReferenceQueue<AnimationHandler> sCollectedHandlers =
+            new ReferenceQueue<AnimationHandler>();
 
     // The time interpolator to be used if none is set on the animation
     private static final /*Time*/Interpolator sDefaultInterpolator =
@@ -152,7 +113,7 @@ public class ValueAnimator extends Animator {
      * Used to indicate whether the animation is currently playing in reverse. This causes the
      * elapsed fraction to be inverted to calculate the appropriate values.
      */
-    private boolean mPlayingBackwards = false;
+    boolean mPlayingBackwards = false;
 
     /**
      * This variable tracks the current iteration that is playing. When mCurrentIteration exceeds the
@@ -163,7 +124,7 @@ public class ValueAnimator extends Animator {
     /**
      * Tracks current elapsed/eased fraction, for querying in getAnimatedFraction().
      */
-    private float mCurrentFraction = 0f;
+    float mCurrentFraction = 0f;
 
     /**
      * Tracks whether a startDelay'd animation has begun playing through the startDelay.
@@ -186,6 +147,21 @@ public class ValueAnimator extends Animator {
      */
     int mPlayingState = STOPPED;
 
+    /**
+     * Whether this animation is on the active animations list of its thread's AnimationHandler.
+     * Lets the handler take every animation which ends in a frame off the list in a single pass.
+     */
+    boolean mInActiveList = false;
+
+    // Incremented each time the animation starts, so that values precomputed for an earlier
+    // run are not applied to this one
+    int mRunGeneration;
+
+    // Set while the values of this animation are being precomputed, see setPrecomputeExecutor()
+    ValuePrecomputer.Record mPrecomputeRecord;
+    ValuePrecomputer.Batch mPrecomputeBatch;
+    int mPrecomputeSlot;
+
     /**
      * Additional playing state to indicate whether an animator has been start()'d. There is
      * some lag between a call to start() and the first animation frame. We should still note
@@ -202,6 +178,13 @@ public class ValueAnimator extends Animator {
      */
     private boolean mStarted = false;
 
+    /**
+     * Set while endAnimation() notifies the end listeners, during which the animator is still
+     * started but will not run another frame. Cleared by start(), so that an animator which is
+     * started again from an end listener stays started.
+     */
+    boolean mEnding = false;
+
     /**
      * Flag that denotes whether the animation is set up and ready to go. Used to
      * set up animation that has not yet been started.
@@ -213,7 +196,7 @@ public class ValueAnimator extends Animator {
     //
 
     // How long the animation should last in ms
-    private long mDuration = 300;
+    long mDuration = 300;
 
     // The amount of time in ms to delay starting the animation after start() is called
     private long mStartDelay = 0;
@@ -237,7 +220,14 @@ public class ValueAnimator extends Animator {
      * through this interpolator to calculate the interpolated fraction, which is then used to
      * calculate the animated values.
      */
-    private /*Time*/Interpolator mInterpolator = sDefaultInterpolator;
+    /*Time*/Interpolator mInterpolator = sDefaultInterpolator;
+
+    /**
+     * The interpolator applied on each frame: either mInterpolator, or a lookup table which is
+     * sampled from it when the animation is initialized. It is kept apart from mInterpolator so
+     * that getInterpolator() and clones still see the interpolator which was set.
+     */
+    /*Time*/Interpolator mFrameInterpolator = sDefaultInterpolator;
 
     /**
      * The set of listeners to be sent events through the life of an animation.
@@ -492,6 +482,9 @@ public class ValueAnimator extends Animator {
             for (int i = 0; i < numValues; ++i) {
                 mValues[i].init();
             }
+            // Framework interpolators are sampled into a table once rather than calling
+            // Math.pow() and friends on every frame.
+            mFrameInterpolator = LookupTableInterpolator.wrapKnown(mInterpolator);
             mInitialized = true;
         }
     }
@@ -536,7 +529,7 @@ public class ValueAnimator extends Animator {
      */
     public void setCurrentPlayTime(long playTime) {
         initAnimation();
-        long currentTime = AnimationUtils.currentAnimationTimeMillis();
+        long currentTime = currentAnimationTimeMillis();
         if (mPlayingState != RUNNING) {
             mSeekTime = playTime;
             mPlayingState = SEEKED;
@@ -556,7 +549,159 @@ public class ValueAnimator extends Animator {
         if (!mInitialized || mPlayingState == STOPPED) {
             return 0;
         }
-        return AnimationUtils.currentAnimationTimeMillis() - mStartTime;
+        return currentAnimationTimeMillis() - mStartTime;
+    }
+
+    /**
+     * Returns the current time of the clock driving animations on the calling thread.
+     */
+    static long currentAnimationTimeMillis() {
+        AnimationHandler handler = sAnimationHandler.get();
+        if (handler != null && handler.mClock != null) {
+            return handler.mClock.currentTimeMillis();
+        }
+        FrameClock clock = sFrameClock.get();
+        if (clock != null) {
+            return clock.currentTimeMillis();
+        }
+        return AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    /**
+     * Returns the handler for the calling thread, creating it if needed.
+     */
+    private static AnimationHandler getOrCreateAnimationHandler() {
+        AnimationHandler handler = sAnimationHandler.get();
+        if (handler == null) {
+            handler = new AnimationHandler();
+            sAnimationHandler.set(handler);
+        }
+        return handler;
+    }
+
+    private static FrameClock createDefaultFrameClock() {
+        if (Looper.myLooper() == null) {
+            throw new AndroidRuntimeException("Animators may only be run on Looper threads");
+        }
+        return FrameClock.createDefault();
+    }
+
+    /**
+     * Sets the clock which drives the animations on the calling thread. Animations which are
+     * already running on the thread continue on the new clock from its next frame.
+     *
+     * <p>Installing a {@link ManualFrameClock} makes animations advance only when the clock is
+     * told to, which allows them to run deterministically, even on threads without a
+     * {@link Looper}.</p>
+     *
+     * @param clock The clock to use, or null to go back to the default clock, which is aligned to
+     * the display refresh where {@link android.view.Choreographer} is available.
+     */
+    public static void setFrameClock(FrameClock clock) {
+        sFrameClock.set(clock);
+        AnimationHandler handler = sAnimationHandler.get();
+        if (handler == null || handler.mClock == null) {
+            return;
+        }
+        if (clock != null) {
+            handler.setClock(clock);
+        } else if (handler.mAnimationScheduled) {
+            handler.setClock(createDefaultFrameClock());
+        } else {
+            // Nothing is running, so the default clock can be created when it is next needed.
+            handler.mClock = null;
+        }
+    }
+
+    /**
+     * Enables calculating the values of the animations running on the calling thread ahead of
+     * each frame, on the given executor. The animation thread then only copies the results into
+     * the animators before applying them, which saves time on it when many values are animated
+     * at once. Values which were not precomputed in time are calculated on the animation thread
+     * as usual, with the same results.
+     *
+     * <p>Only animators whose values are all floats or ints, and which use no evaluator or one
+     * of the built-in evaluators, are precomputed. Their interpolators are called from the
+     * executor, so they must not keep state between calls; the framework interpolators do not.
+     * Precomputing is off by default.</p>
+     *
+     * @param executor The executor to calculate values on, typically a single background
+     * thread, or null to calculate them on the animation thread.
+     */
+    public static void setPrecomputeExecutor(Executor executor) {
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (handler.mPrecomputer != null) {
+            handler.mPrecomputer.release();
+        }
+        handler.mPrecomputer = executor != null ? new ValuePrecomputer(executor) : null;
+    }
+
+    /**
+     * Records the timing of the animation frames on the calling thread in the given profiler,
+     * replacing any profiler set before.
+     *
+     * <p>Call this with null once profiling is done. While any thread has a profiler, the
+     * frames of every thread look their profiler up; a thread which ends without clearing its
+     * profiler is only forgotten after its animation state has been garbage collected.</p>
+     *
+     * @param profiler The profiler to record frames in, or null to stop profiling.
+     */
+    public static void setFrameProfiler(FrameProfiler profiler) {
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (handler.mProfiler != null) {
+            handler.mProfiler.mInFrame = false;
+        }
+        synchronized (AnimationHandler.class) {
+            if (profiler != null && handler.mProfiledRef == null) {
+                handler.mProfiledRef =
+                        new WeakReference<AnimationHandler>(handler, sCollectedHandlers);
+                sProfiledHandlers.add(handler.mProfiledRef);
+            } else if (profiler == null && handler.mProfiledRef != null) {
+                sProfiledHandlers.remove(handler.mProfiledRef);
+                handler.mProfiledRef = null;
+            }
+            sProfiledThreads = sProfiledHandlers.size();
+        }
+        handler.mProfiler = profiler;
+        removeCollectedHandlers();
+    }
+
+    /** Stops counting the profiled threads whose handlers were collected. */
+    private static void removeCollectedHandlers() {
+        Reference<? extends AnimationHandler> ref;
+        while ((ref = sCollectedHandlers.poll()) != null) {
+            synchronized (AnimationHandler.class) {
+                sProfiledHandlers.remove(ref);
+                sProfiledThreads = sProfiledHandlers.size();
+            }
+        }
+    }
+
+    /**
+     * Returns the profiler set on the calling thread, or null if there is none.
+     */
+    public static FrameProfiler getFrameProfiler() {
+        AnimationHandler handler = sAnimationHandler.get();
+        return handler != null ? handler.mProfiler : null;
+    }
+
+    /**
+     * Returns the profiler of the calling thread if it is in the middle of a frame, or null.
+     */
+    static FrameProfiler getFrameProfilerInFrame() {
+        if (sProfiledThreads == 0) {
+            return null;
+        }
+        AnimationHandler handler = sAnimationHandler.get();
+        FrameProfiler profiler = handler != null ? handler.mProfiler : null;
+        return (profiler != null && profiler.mInFrame) ? profiler : null;
+    }
+
+    /**
+     * Returns the clock which drives the animations on the calling thread.
+     */
+    public static FrameClock getFrameClock() {
+        return getOrCreateAnimationHandler().getClock();
     }
 
     /**
@@ -566,118 +711,220 @@ public class ValueAnimator extends Animator {
      * the same times for calculating their values, which makes synchronizing
      * animations possible.
      *
-     */
-    private static class AnimationHandler extends Handler {
+     * <p>The pulse comes from a {@link FrameClock}. The handler only asks the clock for a frame
+     * while there are pending, delayed or active animations, and at most once per frame.</p>
+     */
+    private static class AnimationHandler implements FrameClock.FrameCallback {
+        // The list of all active animations
+        final ArrayList<ValueAnimator> mAnimations = new ArrayList<ValueAnimator>();
+
+        // The set of animations to be started on the next animation frame. Swapped with
+        // mPendingScratch while starting them, since starting may add more pending animations.
+        ArrayList<ValueAnimator> mPendingAnimations = new ArrayList<ValueAnimator>();
+        private ArrayList<ValueAnimator> mPendingScratch = new ArrayList<ValueAnimator>();
+
+        // Internal collections used to avoid set collisions as animations start and end while
+        // being processed. They are kept around so that frames do not allocate.
+        final ArrayList<ValueAnimator> mDelayedAnims = new ArrayList<ValueAnimator>();
+        private final ArrayList<ValueAnimator> mEndingAnims = new ArrayList<ValueAnimator>();
+        private final ArrayList<ValueAnimator> mReadyAnims = new ArrayList<ValueAnimator>();
+
+        // Created when first needed, since the default clock requires a Looper
+        FrameClock mClock;
+        boolean mAnimationScheduled;
+
+        // Calculates values ahead of frames when enabled with setPrecomputeExecutor()
+        ValuePrecomputer mPrecomputer;
+
+        // Records the timing of frames when set with setFrameProfiler()
+        FrameProfiler mProfiler;
+        // This handler's entry in sProfiledHandlers while it has a profiler
+        Reference<AnimationHandler> mProfiledRef;
+
+        FrameClock getClock() {
+            if (mClock == null) {
+                FrameClock clock = sFrameClock.get();
+                mClock = (clock != null) ? clock : createDefaultFrameClock();
+            }
+            return mClock;
+        }
+
+        void setClock(FrameClock clock) {
+            if (mClock == clock) {
+                return;
+            }
+            if (mAnimationScheduled) {
+                mClock.removeFrameCallback(this);
+                clock.postFrameCallback(this);
+            }
+            mClock = clock;
+        }
+
         /**
-         * There are only two messages that we care about: ANIMATION_START and
-         * ANIMATION_FRAME. The START message is sent when an animation's start()
-         * method is called. It cannot start synchronously when start() is called
-         * because the call may be on the wrong thread, and it would also not be
-         * synchronized with other animations because it would not start on a common
-         * timing pulse. So each animation sends a START message to the handler, which
-         * causes the handler to place the animation on the active animations queue and
-         * start processing frames for that animation.
-         * The FRAME message is the one that is sent over and over while there are any
-         * active animations to process.
+         * Requests a frame from the clock, if one is not already pending. Animations are not
+         * started synchronously when start() is called, because the call may be on the wrong
+         * thread, and they would also not be synchronized with other animations because they
+         * would not start on a common timing pulse. So start() schedules a frame, which places
+         * pending animations on the active animations queue and processes their first frame.
          */
+        void scheduleAnimation() {
+            if (!mAnimationScheduled) {
+                getClock().postFrameCallback(this);
+                mAnimationScheduled = true;
+            }
+        }
+
         @Override
-        public void handleMessage(Message msg) {
-            boolean callAgain = true;
-            ArrayList<ValueAnimator> animations = sAnimations.get();
-            ArrayList<ValueAnimator> delayedAnims = sDelayedAnims.get();
-            switch (msg.what) {
-                // TODO: should we avoid sending frame message when starting if we
-                // were already running?
-                case ANIMATION_START:
-                    ArrayList<ValueAnimator> pendingAnimations = sPendingAnimations.get();
-                    if (animations.size() > 0 || delayedAnims.size() > 0) {
-                        callAgain = false;
-                    }
-                    // pendingAnims holds any animations that have requested to be started
-                    // We're going to clear sPendingAnimations, but starting animation may
-                    // cause more to be added to the pending list (for example, if one animation
-                    // starting triggers another starting). So we loop until sPendingAnimations
-                    // is empty.
-                    while (pendingAnimations.size() > 0) {
-                        ArrayList<ValueAnimator> pendingCopy =
-                                (ArrayList<ValueAnimator>) pendingAnimations.clone();
-                        pendingAnimations.clear();
-                        int count = pendingCopy.size();
-                        for (int i = 0; i < count; ++i) {
-                            ValueAnimator anim = pendingCopy.get(i);
-                            // If the animation has a startDelay, place it on the delayed list
-                            if (anim.mStartDelay == 0) {
-                                anim.startAnimation();
-                            } else {
-                                delayedAnims.add(anim);
-                            }
-                        }
-                    }
-                    // fall through to process first frame of new animations
-                case ANIMATION_FRAME:
-                    // currentTime holds the common time for all animations processed
-                    // during this frame
-                    long currentTime = AnimationUtils.currentAnimationTimeMillis();
-                    ArrayList<ValueAnimator> readyAnims = sReadyAnims.get();
-                    ArrayList<ValueAnimator> endingAnims = sEndingAnims.get();
-
-                    // First, process animations currently sitting on the delayed queue, adding
-                    // them to the active animations if they are ready
-                    int numDelayedAnims = delayedAnims.size();
-                    for (int i = 0; i < numDelayedAnims; ++i) {
-                        ValueAnimator anim = delayedAnims.get(i);
-                        if (anim.delayedAnimationFrame(currentTime)) {
-                            readyAnims.add(anim);
-                        }
+        public void doFrame(long frameTimeMillis) {
+            mAnimationScheduled = false;
+            if (sProfiledThreads != 0) {
+                removeCollectedHandlers();
+            }
+            final FrameProfiler profiler = mProfiler;
+            if (profiler == null) {
+                doAnimationFrame(frameTimeMillis);
+                return;
+            }
+            profiler.beginFrame(frameTimeMillis);
+            try {
+                doAnimationFrame(frameTimeMillis);
+            } finally {
+                if (profiler.mInFrame) {
+                    profiler.endFrame(mAnimationScheduled);
+                }
+            }
+        }
+
+        /**
+         * Processes one frame of all animations on this thread.
+         *
+         * @param currentTime The common time for all animations processed during this frame.
+         */
+        private void doAnimationFrame(long currentTime) {
+            final ArrayList<ValueAnimator> animations = mAnimations;
+            final ArrayList<ValueAnimator> delayedAnims = mDelayedAnims;
+
+            // mPendingAnimations holds any animations that have requested to be started.
+            // We're going to clear it, but starting animation may cause more to be added to the
+            // pending list (for example, if one animation starting triggers another starting).
+            // So we loop until mPendingAnimations is empty.
+            while (mPendingAnimations.size() > 0) {
+                ArrayList<ValueAnimator> pendingCopy = mPendingAnimations;
+                mPendingAnimations = mPendingScratch;
+                mPendingScratch = pendingCopy;
+                int count = pendingCopy.size();
+                for (int i = 0; i < count; ++i) {
+                    ValueAnimator anim = pendingCopy.get(i);
+                    // If the animation has a startDelay, place it on the delayed list
+                    if (anim.mStartDelay == 0) {
+                        anim.startAnimation();
+                    } else {
+                        delayedAnims.add(anim);
                     }
-                    int numReadyAnims = readyAnims.size();
-                    if (numReadyAnims > 0) {
-                        for (int i = 0; i < numReadyAnims; ++i) {
-                            ValueAnimator anim = readyAnims.get(i);
-                            anim.startAnimation();
-                            anim.mRunning = true;
-                            delayedAnims.remove(anim);
-                        }
-                        readyAnims.clear();
+                }
+                pendingCopy.clear();
+            }
+
+            final ArrayList<ValueAnimator> readyAnims = mReadyAnims;
+            final ArrayList<ValueAnimator> endingAnims = mEndingAnims;
+
+            // First, process animations currently sitting on the delayed queue, adding
+            // them to the active animations if they are ready. Ready animations are taken off
+            // the delayed queue by compacting it in place.
+            int numDelayedAnims = delayedAnims.size();
+            if (numDelayedAnims > 0) {
+                int numWaiting = 0;
+                for (int i = 0; i < numDelayedAnims; ++i) {
+                    ValueAnimator anim = delayedAnims.get(i);
+                    if (anim.delayedAnimationFrame(currentTime)) {
+                        readyAnims.add(anim);
+                    } else {
+                        delayedAnims.set(numWaiting++, anim);
                     }
+                }
+                truncate(delayedAnims, numWaiting);
+            }
+            int numReadyAnims = readyAnims.size();
+            if (numReadyAnims > 0) {
+                for (int i = 0; i < numReadyAnims; ++i) {
+                    ValueAnimator anim = readyAnims.get(i);
+                    anim.startAnimation();
+                    anim.mRunning = true;
+                }
+                readyAnims.clear();
+            }
 
-                    // Now process all active animations. The return value from animationFrame()
-                    // tells the handler whether it should now be ended
-                    int numAnims = animations.size();
-                    int i = 0;
-                    while (i < numAnims) {
-                        ValueAnimator anim = animations.get(i);
-                        if (anim.animationFrame(currentTime)) {
-                            endingAnims.add(anim);
-                        }
-                        if (animations.size() == numAnims) {
-                            ++i;
-                        } else {
-                            // An animation might be canceled or ended by client code
-                            // during the animation frame. Check to see if this happened by
-                            // seeing whether the current index is the same as it was before
-                            // calling animationFrame(). Another approach would be to copy
-                            // animations to a temporary list and process that list instead,
-                            // but that entails garbage and processing overhead that would
-                            // be nice to avoid.
-                            --numAnims;
-                            endingAnims.remove(anim);
-                        }
+            // Now process all active animations. The return value from animationFrame()
+            // tells the handler whether it should now be ended
+            final FrameProfiler profiler = mProfiler;
+            int numAnims = animations.size();
+            int i = 0;
+            while (i < numAnims) {
+                ValueAnimator anim = animations.get(i);
+                boolean done;
+                if (profiler == null) {
+                    done = anim.animationFrame(currentTime);
+                } else {
+                    long startNanos = profiler.nanoTime();
+                    done = anim.animationFrame(currentTime);
+                    profiler.addAnimatorFrame(startNanos);
+                }
+                if (done) {
+                    endingAnims.add(anim);
+                }
+                if (animations.size() == numAnims) {
+                    ++i;
+                } else {
+                    // An animation might be canceled or ended by client code
+                    // during the animation frame. Check to see if this happened by
+                    // seeing whether the current index is the same as it was before
+                    // calling animationFrame(). Another approach would be to copy
+                    // animations to a temporary list and process that list instead,
+                    // but that entails garbage and processing overhead that would
+                    // be nice to avoid.
+                    --numAnims;
+                    if (done) {
+                        endingAnims.remove(endingAnims.size() - 1);
                     }
-                    if (endingAnims.size() > 0) {
-                        for (i = 0; i < endingAnims.size(); ++i) {
-                            endingAnims.get(i).endAnimation();
-                        }
-                        endingAnims.clear();
+                }
+            }
+            int numEndingAnims = endingAnims.size();
+            if (numEndingAnims > 0) {
+                // Take the ending animations off the active list in a single pass, rather than
+                // having endAnimation() search the list for each of them
+                for (i = 0; i < numEndingAnims; ++i) {
+                    endingAnims.get(i).mInActiveList = false;
+                }
+                int numActive = 0;
+                numAnims = animations.size();
+                for (i = 0; i < numAnims; ++i) {
+                    ValueAnimator anim = animations.get(i);
+                    if (anim.mInActiveList) {
+                        animations.set(numActive++, anim);
                     }
+                }
+                truncate(animations, numActive);
+                for (i = 0; i < endingAnims.size(); ++i) {
+                    endingAnims.get(i).endAnimation();
+                }
+                endingAnims.clear();
+            }
 
-                    // If there are still active or delayed animations, call the handler again
-                    // after the frameDelay
-                    if (callAgain && (!animations.isEmpty() || !delayedAnims.isEmpty())) {
-                        sendEmptyMessageDelayed(ANIMATION_FRAME, Math.max(0, sFrameDelay -
-                            (AnimationUtils.currentAnimationTimeMillis() - currentTime)));
-                    }
-                    break;
+            if (mPrecomputer != null && !animations.isEmpty()) {
+                mPrecomputer.schedule(animations, currentTime);
+            }
+
+            // If there are still active or delayed animations, ask the clock for another frame
+            if (!animations.isEmpty() || !delayedAnims.isEmpty()
+                    || !mPendingAnimations.isEmpty()) {
+                scheduleAnimation();
+            }
+        }
+
+        /** Removes the elements from the given index onwards, starting at the end of the list. */
+        private static void truncate(ArrayList<ValueAnimator> list, int size) {
+            for (int i = list.size() - 1; i >= size; --i) {
+                list.remove(i);
             }
         }
     }
@@ -722,6 +969,10 @@ public class ValueAnimator extends Animator {
      * function because the same delay will be applied to all animations, since they are all
      * run off of a single timing loop.
      *
+     * <p>The frame delay is only used on versions before Jelly Bean. Newer versions run one
+     * animation frame per display frame, as do clocks set with
+     * {@link #setFrameClock(FrameClock)}.</p>
+     *
      * @param frameDelay the requested time between frames, in milliseconds
      */
     public static void setFrameDelay(long frameDelay) {
@@ -817,20 +1068,22 @@ public class ValueAnimator extends Animator {
      * @param listener the listener to be added to the current set of listeners for this animation.
      */
     public void addUpdateListener(AnimatorUpdateListener listener) {
+        ArrayList<AnimatorUpdateListener> listeners;
         if (mUpdateListeners == null) {
-            mUpdateListeners = new ArrayList<AnimatorUpdateListener>();
+            listeners = new ArrayList<AnimatorUpdateListener>(1);
+        } else {
+            listeners = new ArrayList<AnimatorUpdateListener>(mUpdateListeners.size() + 1);
+            listeners.addAll(mUpdateListeners);
         }
-        mUpdateListeners.add(listener);
+        listeners.add(listener);
+        mUpdateListeners = listeners;
     }
 
     /**
      * Removes all listeners from the set listening to frame updates for this animation.
      */
     public void removeAllUpdateListeners() {
-        if (mUpdateListeners == null) {
-            return;
-        }
-        mUpdateListeners.clear();
+        // Frames may be iterating over the current list, so it is dropped rather than cleared.
         mUpdateListeners = null;
     }
 
@@ -841,13 +1094,17 @@ public class ValueAnimator extends Animator {
      * for this animation.
      */
     public void removeUpdateListener(AnimatorUpdateListener listener) {
-        if (mUpdateListeners == null) {
+        if (mUpdateListeners == null || !mUpdateListeners.contains(listener)) {
             return;
         }
-        mUpdateListeners.remove(listener);
-        if (mUpdateListeners.size() == 0) {
+        if (mUpdateListeners.size() == 1) {
             mUpdateListeners = null;
+            return;
         }
+        ArrayList<AnimatorUpdateListener> listeners =
+                new ArrayList<AnimatorUpdateListener>(mUpdateListeners);
+        listeners.remove(listener);
+        mUpdateListeners = listeners;
     }
 
 
@@ -867,6 +1124,7 @@ public class ValueAnimator extends Animator {
         } else {
             mInterpolator = new LinearInterpolator();
         }
+        mFrameInterpolator = mInterpolator;
     }
 
     /**
@@ -906,7 +1164,8 @@ public class ValueAnimator extends Animator {
      * to true if called from the reverse() method.
      *
      * <p>The animation started by calling this method will be run on the thread that called
-     * this method. This thread should have a Looper on it (a runtime exception will be thrown if
+     * this method. This thread should have a Looper on it, unless a clock was set for it with
+     * {@link #setFrameClock(FrameClock)} (a runtime exception will be thrown if
      * this is not the case). Also, if the animation will animate
      * properties of objects in the view hierarchy, then the calling thread should be the UI
      * thread for that view hierarchy.</p>
@@ -914,15 +1173,16 @@ public class ValueAnimator extends Animator {
      * @param playBackwards Whether the ValueAnimator should start playing in reverse.
      */
     private void start(boolean playBackwards) {
-        if (Looper.myLooper() == null) {
-            throw new AndroidRuntimeException("Animators may only be run on Looper threads");
-        }
+        AnimationHandler animationHandler = getOrCreateAnimationHandler();
+        // Fail early if there is no clock and none can be created for this thread
+        animationHandler.getClock();
         mPlayingBackwards = playBackwards;
         mCurrentIteration = 0;
         mPlayingState = STOPPED;
         mStarted = true;
+        mEnding = false;
         mStartedDelay = false;
-        sPendingAnimations.get().add(this);
+        animationHandler.mPendingAnimations.add(this);
         if (mStartDelay == 0) {
             // This sets the initial value of the animation, prior to actually starting it running
             setCurrentPlayTime(getCurrentPlayTime());
@@ -930,20 +1190,14 @@ public class ValueAnimator extends Animator {
             mRunning = true;
 
             if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
+                ArrayList<AnimatorListener> tmpListeners = mListeners;
                 int numListeners = tmpListeners.size();
                 for (int i = 0; i < numListeners; ++i) {
                     tmpListeners.get(i).onAnimationStart(this);
                 }
             }
         }
-        AnimationHandler animationHandler = sAnimationHandler.get();
-        if (animationHandler == null) {
-            animationHandler = new AnimationHandler();
-            sAnimationHandler.set(animationHandler);
-        }
-        animationHandler.sendEmptyMessage(ANIMATION_START);
+        animationHandler.scheduleAnimation();
     }
 
     @Override
@@ -955,14 +1209,15 @@ public class ValueAnimator extends Animator {
     public void cancel() {
         // Only cancel if the animation is actually running or has been started and is about
         // to run
-        if (mPlayingState != STOPPED || sPendingAnimations.get().contains(this) ||
-                sDelayedAnims.get().contains(this)) {
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (mPlayingState != STOPPED || handler.mPendingAnimations.contains(this) ||
+                handler.mDelayedAnims.contains(this)) {
             // Only notify listeners if the animator has actually started
             if (mRunning && mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
-                for (AnimatorListener listener : tmpListeners) {
-                    listener.onAnimationCancel(this);
+                ArrayList<AnimatorListener> tmpListeners = mListeners;
+                int numListeners = tmpListeners.size();
+                for (int i = 0; i < numListeners; ++i) {
+                    tmpListeners.get(i).onAnimationCancel(this);
                 }
             }
             endAnimation();
@@ -971,7 +1226,8 @@ public class ValueAnimator extends Animator {
 
     @Override
     public void end() {
-        if (!sAnimations.get().contains(this) && !sPendingAnimations.get().contains(this)) {
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (!mInActiveList && !handler.mPendingAnimations.contains(this)) {
             // Special case if the animation has not yet started; get it ready for ending
             mStartedDelay = false;
             startAnimation();
@@ -1008,7 +1264,7 @@ public class ValueAnimator extends Animator {
     public void reverse() {
         mPlayingBackwards = !mPlayingBackwards;
         if (mPlayingState == RUNNING) {
-            long currentTime = AnimationUtils.currentAnimationTimeMillis();
+            long currentTime = currentAnimationTimeMillis();
             long currentPlayTime = currentTime - mStartTime;
             long timeLeft = mDuration - currentPlayTime;
             mStartTime = currentTime - timeLeft;
@@ -1022,20 +1278,33 @@ public class ValueAnimator extends Animator {
      * called on the UI thread.
      */
     private void endAnimation() {
-        sAnimations.get().remove(this);
-        sPendingAnimations.get().remove(this);
-        sDelayedAnims.get().remove(this);
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (mInActiveList) {
+            handler.mAnimations.remove(this);
+            mInActiveList = false;
+        }
+        handler.mPendingAnimations.remove(this);
+        handler.mDelayedAnims.remove(this);
         mPlayingState = STOPPED;
+        mEnding = true;
         if (mRunning && mListeners != null) {
-            ArrayList<AnimatorListener> tmpListeners =
-                    (ArrayList<AnimatorListener>) mListeners.clone();
+            FrameProfiler profiler = getFrameProfilerInFrame();
+            long startNanos = (profiler != null) ? profiler.nanoTime() : 0;
+            ArrayList<AnimatorListener> tmpListeners = mListeners;
             int numListeners = tmpListeners.size();
             for (int i = 0; i < numListeners; ++i) {
                 tmpListeners.get(i).onAnimationEnd(this);
             }
+            if (profiler != null) {
+                profiler.addListenerTime(startNanos);
+            }
+        }
+        if (mEnding) {
+            // Not started again by a listener
+            mEnding = false;
+            mRunning = false;
+            mStarted = false;
         }
-        mRunning = false;
-        mStarted = false;
     }
 
     /**
@@ -1044,12 +1313,13 @@ public class ValueAnimator extends Animator {
      */
     private void startAnimation() {
         initAnimation();
-        sAnimations.get().add(this);
+        ++mRunGeneration;
+        getOrCreateAnimationHandler().mAnimations.add(this);
+        mInActiveList = true;
         if (mStartDelay > 0 && mListeners != null) {
             // Listeners were already notified in start() if startDelay is 0; this is
             // just for delayed animations
-            ArrayList<AnimatorListener> tmpListeners =
-                    (ArrayList<AnimatorListener>) mListeners.clone();
+            ArrayList<AnimatorListener> tmpListeners = mListeners;
             int numListeners = tmpListeners.size();
             for (int i = 0; i < numListeners; ++i) {
                 tmpListeners.get(i).onAnimationStart(this);
@@ -1116,10 +1386,11 @@ public class ValueAnimator extends Animator {
             if (fraction >= 1f) {
                 if (mCurrentIteration < mRepeatCount || mRepeatCount == INFINITE) {
                     // Time to repeat
-                    if (mListeners != null) {
-                        int numListeners = mListeners.size();
+                    ArrayList<AnimatorListener> listeners = mListeners;
+                    if (listeners != null) {
+                        int numListeners = listeners.size();
                         for (int i = 0; i < numListeners; ++i) {
-                            mListeners.get(i).onAnimationRepeat(this);
+                            listeners.get(i).onAnimationRepeat(this);
                         }
                     }
                     if (mRepeatMode == REVERSE) {
@@ -1166,16 +1437,32 @@ public class ValueAnimator extends Animator {
      * @param fraction The elapsed fraction of the animation.
      */
     void animateValue(float fraction) {
-        fraction = mInterpolator.getInterpolation(fraction);
-        mCurrentFraction = fraction;
-        int numValues = mValues.length;
-        for (int i = 0; i < numValues; ++i) {
-            mValues[i].calculateValue(fraction);
+        ValuePrecomputer.Batch batch = mPrecomputeBatch;
+        if (batch == null || !batch.apply(this, mPrecomputeSlot, fraction)) {
+            fraction = mFrameInterpolator.getInterpolation(fraction);
+            mCurrentFraction = fraction;
+            int numValues = mValues.length;
+            for (int i = 0; i < numValues; ++i) {
+                mValues[i].calculateValue(fraction);
+            }
         }
-        if (mUpdateListeners != null) {
-            int numListeners = mUpdateListeners.size();
+        notifyUpdateListeners();
+    }
+
+    /**
+     * Calls the update listeners, once the values of the current frame have been calculated.
+     */
+    void notifyUpdateListeners() {
+        ArrayList<AnimatorUpdateListener> updateListeners = mUpdateListeners;
+        if (updateListeners != null) {
+            FrameProfiler profiler = getFrameProfilerInFrame();
+            long startNanos = (profiler != null) ? profiler.nanoTime() : 0;
+            int numListeners = updateListeners.size();
             for (int i = 0; i < numListeners; ++i) {
-                mUpdateListeners.get(i).onAnimationUpdate(this);
+                updateListeners.get(i).onAnimationUpdate(this);
+            }
+            if (profiler != null) {
+                profiler.addListenerTime(startNanos);
             }
         }
     }
@@ -1183,20 +1470,16 @@ public class ValueAnimator extends Animator {
     @Override
     public ValueAnimator clone() {
         final ValueAnimator anim = (ValueAnimator) super.clone();
-        if (mUpdateListeners != null) {
-            ArrayList<AnimatorUpdateListener> oldListeners = mUpdateListeners;
-            anim.mUpdateListeners = new ArrayList<AnimatorUpdateListener>();
-            int numListeners = oldListeners.size();
-            for (int i = 0; i < numListeners; ++i) {
-                anim.mUpdateListeners.add(oldListeners.get(i));
-            }
-        }
+        // The update listener list is never modified once set, so the clone can share it
         anim.mSeekTime = -1;
         anim.mPlayingBackwards = false;
         anim.mCurrentIteration = 0;
         anim.mInitialized = false;
         anim.mPlayingState = STOPPED;
         anim.mStartedDelay = false;
+        anim.mInActiveList = false;
+        anim.mPrecomputeRecord = null;
+        anim.mPrecomputeBatch = null;
         PropertyValuesHolder[] oldValues = mValues;
         if (oldValues != null) {
             int numValues = oldValues.length;
@@ -1236,7 +1519,8 @@ public class ValueAnimator extends Animator {
      * @hide
      */
     public static int getCurrentAnimationsCount() {
-        return sAnimations.get().size();
+        AnimationHandler handler = sAnimationHandler.get();
+        return handler != null ? handler.mAnimations.size() : 0;
     }
 
     /**
@@ -1246,9 +1530,17 @@ public class ValueAnimator extends Animator {
      * @hide
      */
     public static void clearAllAnimations() {
-        sAnimations.get().clear();
-        sPendingAnimations.get().clear();
-        sDelayedAnims.get().clear();
+        AnimationHandler handler = sAnimationHandler.get();
+        if (handler == null) {
+            return;
+        }
+        int numAnims = handler.mAnimations.size();
+        for (int i = 0; i < numAnims; ++i) {
+            handler.mAnimations.get(i).mInActiveList = false;
+        }
+        handler.mAnimations.clear();
+        handler.mPendingAnimations.clear();
+        handler.mDelayedAnims.clear();
     }
 
     @Override
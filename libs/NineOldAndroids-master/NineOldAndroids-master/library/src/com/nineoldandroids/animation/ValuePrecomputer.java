@@ -0,0 +1,335 @@
+package com.nineoldandroids.animation;
+
+import android.view.animation.Interpolator;
+
+import com.nineoldandroids.animation.PropertyValuesHolder.FloatPropertyValuesHolder;
+import com.nineoldandroids.animation.PropertyValuesHolder.IntPropertyValuesHolder;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Calculates the values of the running animations on a thread ahead of its next frame, using
+ * an {@link Executor}. Installed with {@link ValueAnimator#setPrecomputeExecutor(Executor)}.
+ *
+ * <p>At the end of each frame the animations are written into a batch of primitive arrays,
+ * together with the elapsed fractions that they will have if the next frame comes within a few
+ * milliseconds of the expected time. The executor then interpolates every value for each of
+ * those fractions. When the frame arrives and the batch is complete, an animator whose elapsed
+ * fraction matches one of the samples copies its values out of the batch instead of calculating
+ * them. Anything else, such as a late batch, a frame at an unexpected time, or an animation
+ * which was changed in the meantime, falls back to calculating the values on the animation
+ * thread, so the results are the same either way.</p>
+ *
+ * <p>Only animators whose values are all floats or ints, using no evaluator or one of the
+ * built-in evaluators, take part. Their keyframes are copied for the executor, but their
+ * interpolators are shared with it and must not keep state between calls.</p>
+ */
+final class ValuePrecomputer {
+    // How far the next frame may be from the expected time and still find its values
+    private static final int SLACK_MILLIS = 2;
+    private static final int SAMPLES = 2 * SLACK_MILLIS + 1;
+
+    private final Executor mExecutor;
+    private final Batch mBatch = new Batch();
+    private long mLastFrameTime = -1;
+
+    ValuePrecomputer(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Called on the animation thread at the end of a frame to start calculating the values
+     * for the next one. Skipped if the previous batch has not been completed yet.
+     */
+    void schedule(ArrayList<ValueAnimator> animations, long frameTime) {
+        long interval = frameTime - mLastFrameTime;
+        long frameDelay = ValueAnimator.getFrameDelay();
+        if (mLastFrameTime < 0 || interval <= 0 || interval > 4 * frameDelay) {
+            interval = frameDelay;
+        }
+        mLastFrameTime = frameTime;
+
+        final Batch batch = mBatch;
+        if (!batch.mDone) {
+            return;
+        }
+        long firstTime = frameTime + Math.max(1, interval - SLACK_MILLIS);
+        if (batch.fill(animations, firstTime) == 0) {
+            return;
+        }
+        batch.mDone = false;
+        try {
+            mExecutor.execute(batch);
+        } catch (RejectedExecutionException e) {
+            batch.mFailed = true;
+            batch.mDone = true;
+        }
+    }
+
+    /**
+     * Called when the precomputer is replaced, so that animators stop referring to its batch.
+     */
+    void release() {
+        if (mBatch.mDone) {
+            mBatch.clear();
+        }
+    }
+
+    /**
+     * The worker's copy of the parts of an animator which map an elapsed fraction to values,
+     * and the state of the animator which it was copied from.
+     */
+    static final class Record {
+        final int mGeneration;
+        final Interpolator mInterpolator;
+        final PropertyValuesHolder[] mValues;
+        final KeyframeSet[] mKeyframeSets;
+        final TypeEvaluator[] mEvaluators;
+        // Copies of mKeyframeSets which belong to the worker, or null if the animator is not
+        // eligible for precomputation
+        final KeyframeSet[] mWorkerSets;
+
+        private Record(ValueAnimator anim) {
+            PropertyValuesHolder[] values = anim.mValues;
+            int numValues = values.length;
+            mGeneration = anim.mRunGeneration;
+            mInterpolator = anim.mFrameInterpolator;
+            mValues = values;
+            mKeyframeSets = new KeyframeSet[numValues];
+            mEvaluators = new TypeEvaluator[numValues];
+            boolean eligible = true;
+            for (int i = 0; i < numValues; ++i) {
+                PropertyValuesHolder pvh = values[i];
+                mKeyframeSets[i] = pvh.mKeyframeSet;
+                mEvaluators[i] = pvh.mKeyframeSet.mEvaluator;
+                if (pvh instanceof FloatPropertyValuesHolder) {
+                    eligible &= ((FloatPropertyValuesHolder) pvh).mFloatKeyframeSet
+                            .hasPrimitiveEvaluator();
+                } else if (pvh instanceof IntPropertyValuesHolder) {
+                    eligible &= ((IntPropertyValuesHolder) pvh).mIntKeyframeSet
+                            .hasPrimitiveEvaluator();
+                } else {
+                    eligible = false;
+                }
+            }
+            if (!eligible) {
+                mWorkerSets = null;
+                return;
+            }
+            mWorkerSets = new KeyframeSet[numValues];
+            for (int i = 0; i < numValues; ++i) {
+                KeyframeSet workerSet = mKeyframeSets[i].clone();
+                workerSet.setEvaluator(mEvaluators[i]);
+                mWorkerSets[i] = workerSet;
+            }
+        }
+
+        /** Returns whether the animator still calculates its values the way it was copied. */
+        boolean matches(ValueAnimator anim) {
+            if (anim.mRunGeneration != mGeneration || anim.mFrameInterpolator != mInterpolator
+                    || anim.mValues != mValues) {
+                return false;
+            }
+            for (int i = 0; i < mKeyframeSets.length; ++i) {
+                KeyframeSet keyframeSet = mValues[i].mKeyframeSet;
+                if (keyframeSet != mKeyframeSets[i] || keyframeSet.mEvaluator != mEvaluators[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static Record forAnimator(ValueAnimator anim) {
+            Record record = anim.mPrecomputeRecord;
+            if (record == null || !record.matches(anim)) {
+                record = new Record(anim);
+                anim.mPrecomputeRecord = record;
+            }
+            return record;
+        }
+    }
+
+    /**
+     * The animations of one frame and their precomputed values. Written by the animation thread
+     * while {@link #mDone} is true, and by the executor while it is false.
+     */
+    static final class Batch implements Runnable {
+        volatile boolean mDone = true;
+        boolean mFailed;
+
+        private int mCount;
+        private long mFirstTime;
+        private ValueAnimator[] mAnimators = new ValueAnimator[0];
+        private Record[] mRecords = new Record[0];
+        private long[] mStartTimes = new long[0];
+        private long[] mDurations = new long[0];
+        private boolean[] mBackwards = new boolean[0];
+        // Index of the first value of each animator, in units of values
+        private int[] mValueOffsets = new int[0];
+
+        // Elapsed and interpolated fractions, SAMPLES per animator
+        private float[] mInputs = new float[0];
+        private float[] mFractions = new float[0];
+        // Calculated values, SAMPLES per value of each animator
+        private float[] mFloatValues = new float[0];
+        private int[] mIntValues = new int[0];
+
+        /**
+         * Adds the running, eligible animations to the batch, and returns how many there are.
+         */
+        int fill(ArrayList<ValueAnimator> animations, long firstTime) {
+            clear();
+            mFailed = false;
+            mFirstTime = firstTime;
+            int numAnims = animations.size();
+            ensureAnimatorCapacity(numAnims);
+            int count = 0;
+            int numValues = 0;
+            for (int i = 0; i < numAnims; ++i) {
+                ValueAnimator anim = animations.get(i);
+                if (anim.mPlayingState != ValueAnimator.RUNNING || anim.mValues == null
+                        || anim.mValues.length == 0) {
+                    continue;
+                }
+                Record record = Record.forAnimator(anim);
+                if (record.mWorkerSets == null) {
+                    continue;
+                }
+                mAnimators[count] = anim;
+                mRecords[count] = record;
+                mStartTimes[count] = anim.mStartTime;
+                mDurations[count] = anim.mDuration;
+                mBackwards[count] = anim.mPlayingBackwards;
+                mValueOffsets[count] = numValues;
+                anim.mPrecomputeBatch = this;
+                anim.mPrecomputeSlot = count;
+                numValues += record.mWorkerSets.length;
+                ++count;
+            }
+            mCount = count;
+            ensureValueCapacity(count, numValues);
+            return count;
+        }
+
+        /** Detaches the animators of the previous frame from this batch. */
+        void clear() {
+            for (int i = 0; i < mCount; ++i) {
+                ValueAnimator anim = mAnimators[i];
+                if (anim.mPrecomputeBatch == this) {
+                    anim.mPrecomputeBatch = null;
+                }
+                mAnimators[i] = null;
+                mRecords[i] = null;
+            }
+            mCount = 0;
+        }
+
+        private void ensureAnimatorCapacity(int capacity) {
+            if (mAnimators.length >= capacity) {
+                return;
+            }
+            mAnimators = new ValueAnimator[capacity];
+            mRecords = new Record[capacity];
+            mStartTimes = new long[capacity];
+            mDurations = new long[capacity];
+            mBackwards = new boolean[capacity];
+            mValueOffsets = new int[capacity];
+        }
+
+        private void ensureValueCapacity(int count, int numValues) {
+            if (mInputs.length < count * SAMPLES) {
+                mInputs = new float[count * SAMPLES];
+                mFractions = new float[count * SAMPLES];
+            }
+            if (mFloatValues.length < numValues * SAMPLES) {
+                mFloatValues = new float[numValues * SAMPLES];
+                mIntValues = new int[numValues * SAMPLES];
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int slot = 0; slot < mCount; ++slot) {
+                    calculate(slot);
+                }
+            } catch (RuntimeException e) {
+                // The same failure is reported when the values are calculated on the
+                // animation thread instead.
+                mFailed = true;
+            } finally {
+                mDone = true;
+            }
+        }
+
+        /** Mirrors the fraction calculation in ValueAnimator.animationFrame(). */
+        private void calculate(int slot) {
+            final Record record = mRecords[slot];
+            final KeyframeSet[] sets = record.mWorkerSets;
+            final long startTime = mStartTimes[slot];
+            final long duration = mDurations[slot];
+            final int valueOffset = mValueOffsets[slot];
+            for (int k = 0; k < SAMPLES; ++k) {
+                long time = mFirstTime + k;
+                float fraction = duration > 0 ? (float)(time - startTime) / duration : 1f;
+                fraction = Math.min(fraction, 1f);
+                if (mBackwards[slot]) {
+                    fraction = 1f - fraction;
+                }
+                int index = slot * SAMPLES + k;
+                mInputs[index] = fraction;
+                float interpolated = record.mInterpolator.getInterpolation(fraction);
+                mFractions[index] = interpolated;
+                for (int i = 0; i < sets.length; ++i) {
+                    int valueIndex = (valueOffset + i) * SAMPLES + k;
+                    if (sets[i] instanceof FloatKeyframeSet) {
+                        mFloatValues[valueIndex] =
+                                ((FloatKeyframeSet) sets[i]).getFloatValue(interpolated);
+                    } else {
+                        mIntValues[valueIndex] =
+                                ((IntKeyframeSet) sets[i]).getIntValue(interpolated);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Called from ValueAnimator.animateValue() to apply the values precomputed for the
+         * given elapsed fraction. Returns false if there are none, in which case the animator
+         * has to calculate them itself.
+         */
+        boolean apply(ValueAnimator anim, int slot, float fraction) {
+            if (!mDone || mFailed || slot >= mCount || mAnimators[slot] != anim) {
+                return false;
+            }
+            final Record record = mRecords[slot];
+            if (anim.mPrecomputeRecord != record || !record.matches(anim)) {
+                return false;
+            }
+            int base = slot * SAMPLES;
+            for (int k = 0; k < SAMPLES; ++k) {
+                if (mInputs[base + k] != fraction) {
+                    continue;
+                }
+                anim.mCurrentFraction = mFractions[base + k];
+                PropertyValuesHolder[] values = anim.mValues;
+                int valueOffset = mValueOffsets[slot];
+                for (int i = 0; i < values.length; ++i) {
+                    int valueIndex = (valueOffset + i) * SAMPLES + k;
+                    PropertyValuesHolder pvh = values[i];
+                    if (pvh instanceof FloatPropertyValuesHolder) {
+                        ((FloatPropertyValuesHolder) pvh).mFloatAnimatedValue =
+                                mFloatValues[valueIndex];
+                    } else {
+                        ((IntPropertyValuesHolder) pvh).mIntAnimatedValue =
+                                mIntValues[valueIndex];
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -698,15 +698,21 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
             }
             ArrayList<NameValuesHolder> valueList = propertyBundle.mNameValuesHolder;
             if (valueList != null) {
-                int count = valueList.size();
-                for (int i = 0; i < count; ++i) {
-                    NameValuesHolder values = valueList.get(i);
-                    float value = values.mFromValue + fraction * values.mDeltaValue;
-                    //if (values.mNameConstant == ALPHA) {
-                    //    alphaHandled = mView.setAlphaNoInvalidation(value);
-                    //} else {
-                        setValue(values.mNameConstant, value);
-                    //}
+                // Set all of the properties before computing the area to redraw once
+                mProxy.beginBatch();
+                try {
+                    int count = valueList.size();
+                    for (int i = 0; i < count; ++i) {
+                        NameValuesHolder values = valueList.get(i);
+                        float value = values.mFromValue + fraction * values.mDeltaValue;
+                        //if (values.mNameConstant == ALPHA) {
+                        //    alphaHandled = mView.setAlphaNoInvalidation(value);
+                        //} else {
+                            setValue(values.mNameConstant, value);
+                        //}
+                    }
+                } finally {
+                    mProxy.commitBatch();
                 }
             }
             /*if ((propertyMask & TRANSFORM_MASK) != 0) {
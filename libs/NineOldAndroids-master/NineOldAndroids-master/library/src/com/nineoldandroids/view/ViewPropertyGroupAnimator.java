@@ -0,0 +1,426 @@
+package com.nineoldandroids.view;
+
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.LookupTableInterpolator;
+import com.nineoldandroids.animation.ValueAnimator;
+import com.nineoldandroids.view.animation.AnimatorProxy;
+
+import java.util.List;
+
+/**
+ * Animates the same properties on a group of views from a single animator, optionally
+ * starting each view a little later than the previous one.
+ *
+ * <pre>
+ * ViewPropertyGroupAnimator.animate(rows)
+ *         .translationY(0).alpha(1)
+ *         .setStagger(30)
+ *         .start();
+ * </pre>
+ *
+ * <p>Every view follows the same curve as it would with {@link ViewPropertyAnimator}, but one
+ * {@link ValueAnimator} and one update listener drive the whole group, and the start and end
+ * values of all views are kept in flat arrays. On pre-3.0 platforms the properties of each
+ * view are set in one {@link AnimatorProxy} batch per frame.</p>
+ *
+ * <p>Unlike {@link ViewPropertyAnimator}, animations do not start on their own; call
+ * {@link #start()} once the properties have been requested. Starting again cancels the
+ * previous run, leaving the views where it stopped them. Must be used on the UI thread.</p>
+ */
+public final class ViewPropertyGroupAnimator {
+    private static final int TRANSLATION_X  = 0;
+    private static final int TRANSLATION_Y  = 1;
+    private static final int SCALE_X        = 2;
+    private static final int SCALE_Y        = 3;
+    private static final int ROTATION       = 4;
+    private static final int ROTATION_X     = 5;
+    private static final int ROTATION_Y     = 6;
+    private static final int X              = 7;
+    private static final int Y              = 8;
+    private static final int ALPHA          = 9;
+    private static final int PROPERTY_COUNT = 10;
+
+    private static final Interpolator sDefaultInterpolator = new AccelerateDecelerateInterpolator();
+
+    /**
+     * Returns an animator for the given views.
+     *
+     * @param views Views to animate, in the order in which they are staggered.
+     */
+    public static ViewPropertyGroupAnimator animate(View... views) {
+        return new ViewPropertyGroupAnimator(views.clone());
+    }
+
+    /**
+     * Returns an animator for the given views.
+     *
+     * @param views Views to animate, in the order in which they are staggered.
+     */
+    public static ViewPropertyGroupAnimator animate(List<? extends View> views) {
+        return new ViewPropertyGroupAnimator(views.toArray(new View[views.size()]));
+    }
+
+    private final View[] mViews;
+
+    private long mDuration = -1;
+    private long mStartDelay;
+    private long mStagger;
+    private long[] mStartOffsets;
+    private Interpolator mInterpolator = sDefaultInterpolator;
+    private Animator.AnimatorListener mListener;
+
+    // Properties requested since the last start(), in the order in which they were requested
+    private final int[] mPendingProperties = new int[PROPERTY_COUNT];
+    private final float[] mPendingValues = new float[PROPERTY_COUNT];
+    private final boolean[] mPendingBy = new boolean[PROPERTY_COUNT];
+    private int mPendingCount;
+
+    // State of the current run. The values of property p for view v are at p * views + v.
+    private ValueAnimator mAnimator;
+    private int[] mProperties;
+    private float[] mFromValues;
+    private float[] mDeltaValues;
+    private long[] mOffsets;
+    private boolean[] mFinished;
+    private AnimatorProxy[] mProxies;
+    private long mViewDuration;
+    private long mTotalDuration;
+    private Interpolator mRunInterpolator;
+
+    private ViewPropertyGroupAnimator(View[] views) {
+        for (View view : views) {
+            if (view == null) {
+                throw new IllegalArgumentException("Views cannot be null");
+            }
+        }
+        mViews = views;
+    }
+
+    /**
+     * Sets the duration of the animation of each view. The default is the default duration of
+     * {@link ValueAnimator}.
+     */
+    public ViewPropertyGroupAnimator setDuration(long duration) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Animators cannot have negative duration: " +
+                    duration);
+        }
+        mDuration = duration;
+        return this;
+    }
+
+    /** Sets the delay before the first view starts animating. */
+    public ViewPropertyGroupAnimator setStartDelay(long startDelay) {
+        if (startDelay < 0) {
+            throw new IllegalArgumentException("Animators cannot have negative start delay: " +
+                    startDelay);
+        }
+        mStartDelay = startDelay;
+        return this;
+    }
+
+    /**
+     * Starts each view the given number of milliseconds after the previous one. Ignored if
+     * offsets were set with {@link #setStartOffsets(long[])}.
+     */
+    public ViewPropertyGroupAnimator setStagger(long stagger) {
+        if (stagger < 0) {
+            throw new IllegalArgumentException("Stagger cannot be negative: " + stagger);
+        }
+        mStagger = stagger;
+        return this;
+    }
+
+    /**
+     * Sets how long after the start of the animation each view starts animating, or null to
+     * use the {@link #setStagger(long) stagger}.
+     *
+     * @param offsets One non-negative offset per view, in milliseconds.
+     */
+    public ViewPropertyGroupAnimator setStartOffsets(long[] offsets) {
+        if (offsets != null) {
+            if (offsets.length != mViews.length) {
+                throw new IllegalArgumentException("Expected " + mViews.length +
+                        " offsets but got " + offsets.length);
+            }
+            for (long offset : offsets) {
+                if (offset < 0) {
+                    throw new IllegalArgumentException("Offsets cannot be negative: " + offset);
+                }
+            }
+            offsets = offsets.clone();
+        }
+        mStartOffsets = offsets;
+        return this;
+    }
+
+    /**
+     * Sets the interpolator applied to the animation of each view. Defaults to
+     * {@link AccelerateDecelerateInterpolator}, and null means linear.
+     */
+    public ViewPropertyGroupAnimator setInterpolator(Interpolator interpolator) {
+        mInterpolator = (interpolator != null) ? interpolator : new LinearInterpolator();
+        return this;
+    }
+
+    /**
+     * Sets a listener for the events of the animator driving the group. Its end event comes
+     * after the last view has finished.
+     */
+    public ViewPropertyGroupAnimator setListener(Animator.AnimatorListener listener) {
+        mListener = listener;
+        return this;
+    }
+
+    public ViewPropertyGroupAnimator x(float value) {
+        return animateProperty(X, value, false);
+    }
+    public ViewPropertyGroupAnimator xBy(float value) {
+        return animateProperty(X, value, true);
+    }
+    public ViewPropertyGroupAnimator y(float value) {
+        return animateProperty(Y, value, false);
+    }
+    public ViewPropertyGroupAnimator yBy(float value) {
+        return animateProperty(Y, value, true);
+    }
+    public ViewPropertyGroupAnimator rotation(float value) {
+        return animateProperty(ROTATION, value, false);
+    }
+    public ViewPropertyGroupAnimator rotationBy(float value) {
+        return animateProperty(ROTATION, value, true);
+    }
+    public ViewPropertyGroupAnimator rotationX(float value) {
+        return animateProperty(ROTATION_X, value, false);
+    }
+    public ViewPropertyGroupAnimator rotationXBy(float value) {
+        return animateProperty(ROTATION_X, value, true);
+    }
+    public ViewPropertyGroupAnimator rotationY(float value) {
+        return animateProperty(ROTATION_Y, value, false);
+    }
+    public ViewPropertyGroupAnimator rotationYBy(float value) {
+        return animateProperty(ROTATION_Y, value, true);
+    }
+    public ViewPropertyGroupAnimator translationX(float value) {
+        return animateProperty(TRANSLATION_X, value, false);
+    }
+    public ViewPropertyGroupAnimator translationXBy(float value) {
+        return animateProperty(TRANSLATION_X, value, true);
+    }
+    public ViewPropertyGroupAnimator translationY(float value) {
+        return animateProperty(TRANSLATION_Y, value, false);
+    }
+    public ViewPropertyGroupAnimator translationYBy(float value) {
+        return animateProperty(TRANSLATION_Y, value, true);
+    }
+    public ViewPropertyGroupAnimator scaleX(float value) {
+        return animateProperty(SCALE_X, value, false);
+    }
+    public ViewPropertyGroupAnimator scaleXBy(float value) {
+        return animateProperty(SCALE_X, value, true);
+    }
+    public ViewPropertyGroupAnimator scaleY(float value) {
+        return animateProperty(SCALE_Y, value, false);
+    }
+    public ViewPropertyGroupAnimator scaleYBy(float value) {
+        return animateProperty(SCALE_Y, value, true);
+    }
+    public ViewPropertyGroupAnimator alpha(float value) {
+        return animateProperty(ALPHA, value, false);
+    }
+    public ViewPropertyGroupAnimator alphaBy(float value) {
+        return animateProperty(ALPHA, value, true);
+    }
+
+    /**
+     * Starts animating the properties requested since the last call, reading the start value
+     * of each property from each view.
+     */
+    public void start() {
+        cancel();
+        final View[] views = mViews;
+        final int numViews = views.length;
+        final int numProperties = mPendingCount;
+        mPendingCount = 0;
+
+        mProperties = new int[numProperties];
+        mFromValues = new float[numProperties * numViews];
+        mDeltaValues = new float[numProperties * numViews];
+        for (int p = 0; p < numProperties; ++p) {
+            final int property = mPendingProperties[p];
+            final float value = mPendingValues[p];
+            final boolean by = mPendingBy[p];
+            mProperties[p] = property;
+            for (int v = 0; v < numViews; ++v) {
+                float from = getValue(views[v], property);
+                mFromValues[p * numViews + v] = from;
+                mDeltaValues[p * numViews + v] = by ? value : value - from;
+            }
+        }
+
+        mOffsets = new long[numViews];
+        long maxOffset = 0;
+        for (int v = 0; v < numViews; ++v) {
+            long offset = (mStartOffsets != null) ? mStartOffsets[v] : v * mStagger;
+            mOffsets[v] = offset;
+            maxOffset = Math.max(maxOffset, offset);
+        }
+        mFinished = new boolean[numViews];
+        if (AnimatorProxy.NEEDS_PROXY) {
+            mProxies = new AnimatorProxy[numViews];
+            for (int v = 0; v < numViews; ++v) {
+                mProxies[v] = AnimatorProxy.wrap(views[v]);
+            }
+        } else {
+            mProxies = null;
+        }
+        // Applied to every view on every frame, so costly interpolators go through a table
+        mRunInterpolator = LookupTableInterpolator.wrapKnown(mInterpolator);
+
+        // The animator measures time linearly across the whole group; each view applies the
+        // interpolator to its own part of it.
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+        if (mDuration >= 0) {
+            animator.setDuration(mDuration);
+        }
+        mViewDuration = animator.getDuration();
+        mTotalDuration = mViewDuration + maxOffset;
+        animator.setDuration(mTotalDuration);
+        animator.setStartDelay(mStartDelay);
+        animator.setInterpolator(new LinearInterpolator());
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                update(animation.getAnimatedFraction());
+            }
+        });
+        if (mListener != null) {
+            animator.addListener(mListener);
+        }
+        mAnimator = animator;
+        animator.start();
+    }
+
+    /** Stops the current run, leaving each view where it is. */
+    public void cancel() {
+        if (mAnimator != null) {
+            ValueAnimator animator = mAnimator;
+            mAnimator = null;
+            animator.cancel();
+        }
+    }
+
+    private ViewPropertyGroupAnimator animateProperty(int property, float value, boolean by) {
+        int index = 0;
+        while (index < mPendingCount && mPendingProperties[index] != property) {
+            ++index;
+        }
+        if (index == mPendingCount) {
+            ++mPendingCount;
+        }
+        mPendingProperties[index] = property;
+        mPendingValues[index] = value;
+        mPendingBy[index] = by;
+        return this;
+    }
+
+    private void update(float groupFraction) {
+        final View[] views = mViews;
+        final int numViews = views.length;
+        final long playTime = (long) (groupFraction * mTotalDuration);
+        for (int v = 0; v < numViews; ++v) {
+            if (mFinished[v]) {
+                continue;
+            }
+            long elapsed = playTime - mOffsets[v];
+            if (elapsed < 0) {
+                // Not started yet, so the view still has its start values
+                continue;
+            }
+            float fraction = 1f;
+            if (mViewDuration > 0 && groupFraction < 1f) {
+                fraction = Math.min(1f, (float) elapsed / mViewDuration);
+            }
+            if (fraction >= 1f) {
+                mFinished[v] = true;
+            }
+            apply(v, mRunInterpolator.getInterpolation(fraction));
+        }
+    }
+
+    private void apply(int v, float fraction) {
+        final View view = mViews[v];
+        final AnimatorProxy proxy = (mProxies != null) ? mProxies[v] : null;
+        final int numViews = mViews.length;
+        if (proxy != null) {
+            proxy.beginBatch();
+        }
+        try {
+            for (int p = 0; p < mProperties.length; ++p) {
+                int index = p * numViews + v;
+                float value = mFromValues[index] + fraction * mDeltaValues[index];
+                if (proxy != null) {
+                    setProxyValue(proxy, mProperties[p], value);
+                } else {
+                    setValue(view, mProperties[p], value);
+                }
+            }
+        } finally {
+            if (proxy != null) {
+                proxy.commitBatch();
+            }
+        }
+    }
+
+    private static void setProxyValue(AnimatorProxy proxy, int property, float value) {
+        switch (property) {
+            case TRANSLATION_X: proxy.setTranslationX(value); break;
+            case TRANSLATION_Y: proxy.setTranslationY(value); break;
+            case SCALE_X:       proxy.setScaleX(value);       break;
+            case SCALE_Y:       proxy.setScaleY(value);       break;
+            case ROTATION:      proxy.setRotation(value);     break;
+            case ROTATION_X:    proxy.setRotationX(value);    break;
+            case ROTATION_Y:    proxy.setRotationY(value);    break;
+            case X:             proxy.setX(value);            break;
+            case Y:             proxy.setY(value);            break;
+            case ALPHA:         proxy.setAlpha(value);        break;
+        }
+    }
+
+    private static void setValue(View view, int property, float value) {
+        switch (property) {
+            case TRANSLATION_X: ViewHelper.setTranslationX(view, value); break;
+            case TRANSLATION_Y: ViewHelper.setTranslationY(view, value); break;
+            case SCALE_X:       ViewHelper.setScaleX(view, value);       break;
+            case SCALE_Y:       ViewHelper.setScaleY(view, value);       break;
+            case ROTATION:      ViewHelper.setRotation(view, value);     break;
+            case ROTATION_X:    ViewHelper.setRotationX(view, value);    break;
+            case ROTATION_Y:    ViewHelper.setRotationY(view, value);    break;
+            case X:             ViewHelper.setX(view, value);            break;
+            case Y:             ViewHelper.setY(view, value);            break;
+            case ALPHA:         ViewHelper.setAlpha(view, value);        break;
+        }
+    }
+
+    private static float getValue(View view, int property) {
+        switch (property) {
+            case TRANSLATION_X: return ViewHelper.getTranslationX(view);
+            case TRANSLATION_Y: return ViewHelper.getTranslationY(view);
+            case SCALE_X:       return ViewHelper.getScaleX(view);
+            case SCALE_Y:       return ViewHelper.getScaleY(view);
+            case ROTATION:      return ViewHelper.getRotation(view);
+            case ROTATION_X:    return ViewHelper.getRotationX(view);
+            case ROTATION_Y:    return ViewHelper.getRotationY(view);
+            case X:             return ViewHelper.getX(view);
+            case Y:             return ViewHelper.getY(view);
+            case ALPHA:         return ViewHelper.getAlpha(view);
+        }
+        return 0;
+    }
+}
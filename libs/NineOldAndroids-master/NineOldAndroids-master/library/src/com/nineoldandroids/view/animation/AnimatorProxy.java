@@ -9,7 +9,6 @@ import android.view.animation.Animation;
 import android.view.animation.Transformation;
 
 import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
 
 /**
  * A proxy class to allow for modifying post-3.0 view properties on all pre-3.0
@@ -20,9 +19,6 @@ public final class AnimatorProxy extends Animation {
     /** Whether or not the current running platform needs to be proxied. */
     public static final boolean NEEDS_PROXY = Integer.valueOf(Build.VERSION.SDK).intValue() < Build.VERSION_CODES.HONEYCOMB;
 
-    private static final WeakHashMap<View, AnimatorProxy> PROXIES =
-            new WeakHashMap<View, AnimatorProxy>();
-
     /**
      * Create a proxy to allow for modifying post-3.0 view properties on all
      * pre-3.0 platforms. <strong>DO NOT</strong> wrap your views if you are
@@ -32,13 +28,16 @@ public final class AnimatorProxy extends Animation {
      * @return Proxy to post-3.0 properties.
      */
     public static AnimatorProxy wrap(View view) {
-        AnimatorProxy proxy = PROXIES.get(view);
-        // This checks if the proxy already exists and whether it still is the animation of the given view
-        if (proxy == null || proxy != view.getAnimation()) {
-            proxy = new AnimatorProxy(view);
-            PROXIES.put(view, proxy);
+        // A proxy is only reused while it is the animation of its view, so the view itself
+        // holds it and looking it up needs no hashing or global map.
+        Animation animation = view.getAnimation();
+        if (animation instanceof AnimatorProxy) {
+            AnimatorProxy proxy = (AnimatorProxy) animation;
+            if (proxy.mView.get() == view) {
+                return proxy;
+            }
         }
-        return proxy;
+        return new AnimatorProxy(view);
     }
 
     private final WeakReference<View> mView;
@@ -60,6 +59,12 @@ public final class AnimatorProxy extends Animation {
     private final RectF mAfter = new RectF();
     private final Matrix mTempMatrix = new Matrix();
 
+    // State of the batch opened by beginBatch(), if any
+    private int mBatchDepth;
+    private boolean mBatchPrepared;
+    private boolean mBatchTransformChanged;
+    private boolean mBatchAlphaChanged;
+
     private AnimatorProxy(View view) {
         setDuration(0); //perform transformation immediately
         setFillAfter(true); //persist transformation beyond duration
@@ -67,12 +72,50 @@ public final class AnimatorProxy extends Animation {
         mView = new WeakReference<View>(view);
     }
 
+    /**
+     * Starts a batch of property changes. Until the matching {@link #commitBatch()}, setters
+     * only record their values, and the area to redraw is computed and invalidated once when
+     * the batch is committed. Batches may be nested.
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatchPrepared = false;
+            mBatchTransformChanged = false;
+            mBatchAlphaChanged = false;
+        }
+    }
+
+    /**
+     * Ends a batch started with {@link #beginBatch()}, invalidating the view for all of the
+     * changes made during the outermost batch.
+     */
+    public void commitBatch() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("commitBatch() called without beginBatch()");
+        }
+        if (--mBatchDepth > 0) {
+            return;
+        }
+        // Invalidating the parent redraws the view as well, so alpha alone needs its own call
+        boolean invalidated = mBatchTransformChanged && invalidateAfterUpdate();
+        if (!invalidated && mBatchAlphaChanged) {
+            View view = mView.get();
+            if (view != null) {
+                view.invalidate();
+            }
+        }
+    }
+
     public float getAlpha() {
         return mAlpha;
     }
     public void setAlpha(float alpha) {
         if (mAlpha != alpha) {
             mAlpha = alpha;
+            if (mBatchDepth > 0) {
+                mBatchAlphaChanged = true;
+                return;
+            }
             View view = mView.get();
             if (view != null) {
                 view.invalidate();
@@ -227,15 +270,26 @@ public final class AnimatorProxy extends Animation {
     }
 
     private void prepareForUpdate() {
+        if (mBatchDepth > 0) {
+            // Only the area before the first change of the batch is needed
+            if (mBatchPrepared) {
+                return;
+            }
+            mBatchPrepared = true;
+        }
         View view = mView.get();
         if (view != null) {
             computeRect(mBefore, view);
         }
     }
-    private void invalidateAfterUpdate() {
+    private boolean invalidateAfterUpdate() {
+        if (mBatchDepth > 0) {
+            mBatchTransformChanged = true;
+            return false;
+        }
         View view = mView.get();
         if (view == null || view.getParent() == null) {
-            return;
+            return false;
         }
 
         final RectF after = mAfter;
@@ -247,6 +301,7 @@ public final class AnimatorProxy extends Animation {
                 (int) Math.floor(after.top),
                 (int) Math.ceil(after.right),
                 (int) Math.ceil(after.bottom));
+        return true;
     }
 
     private void computeRect(final RectF r, View view) {
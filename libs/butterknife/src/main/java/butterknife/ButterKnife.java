@@ -7,13 +7,15 @@ import android.content.Context;
 import android.os.Build;
 import android.util.Log;
 import android.util.Property;
+import android.util.SparseArray;
 import android.view.View;
+import android.view.ViewGroup;
 import butterknife.internal.ButterKnifeProcessor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static butterknife.internal.ButterKnifeProcessor.ANDROID_PREFIX;
 import static butterknife.internal.ButterKnifeProcessor.JAVA_PREFIX;
@@ -95,33 +97,48 @@ public final class ButterKnife {
   @SuppressWarnings("UnusedDeclaration") // Used by generated code.
   public enum Finder {
     VIEW {
-      @Override public View findOptionalView(Object source, int id) {
+      @Override protected View findViewById(Object source, int id) {
         return ((View) source).findViewById(id);
       }
 
+      @Override protected View getRootView(Object source) {
+        return (View) source;
+      }
+
       @Override protected Context getContext(Object source) {
         return ((View) source).getContext();
       }
     },
     ACTIVITY {
-      @Override public View findOptionalView(Object source, int id) {
+      @Override protected View findViewById(Object source, int id) {
         return ((Activity) source).findViewById(id);
       }
 
+      @Override protected View getRootView(Object source) {
+        return ((Activity) source).getWindow().getDecorView();
+      }
+
       @Override protected Context getContext(Object source) {
         return (Activity) source;
       }
     },
     DIALOG {
-      @Override public View findOptionalView(Object source, int id) {
+      @Override protected View findViewById(Object source, int id) {
         return ((Dialog) source).findViewById(id);
       }
 
+      @Override protected View getRootView(Object source) {
+        return ((Dialog) source).getWindow().getDecorView();
+      }
+
       @Override protected Context getContext(Object source) {
         return ((Dialog) source).getContext();
       }
     };
 
+    /** Index of the views of the source currently being injected, when lookups are batched. */
+    private static final ThreadLocal<ViewIndex> BATCH = new ThreadLocal<ViewIndex>();
+
     public static <T extends View> T[] arrayOf(T... views) {
       return views;
     }
@@ -145,11 +162,69 @@ public final class ButterKnife {
       return view;
     }
 
-    public abstract View findOptionalView(Object source, int id);
+    public View findOptionalView(Object source, int id) {
+      ViewIndex index = BATCH.get();
+      if (index != null && index.source == source) {
+        return index.get(this, id);
+      }
+      return findViewById(source, id);
+    }
+
+    /**
+     * Route lookups on {@code source} through a single traversal of its view hierarchy until
+     * {@link #endBatch} is called with the returned value.
+     */
+    static ViewIndex beginBatch(Object source) {
+      ViewIndex previous = BATCH.get();
+      BATCH.set(new ViewIndex(source));
+      return previous;
+    }
+
+    static void endBatch(ViewIndex previous) {
+      BATCH.set(previous);
+    }
+
+    protected abstract View findViewById(Object source, int id);
+
+    protected abstract View getRootView(Object source);
 
     protected abstract Context getContext(Object source);
   }
 
+  /**
+   * An id to view table for one source which is built lazily with a single pre-order traversal.
+   * The first view found for an id wins, matching {@link View#findViewById(int)}.
+   */
+  static final class ViewIndex {
+    final Object source;
+    private SparseArray<View> views;
+
+    ViewIndex(Object source) {
+      this.source = source;
+    }
+
+    View get(Finder finder, int id) {
+      if (views == null) {
+        views = new SparseArray<View>();
+        index(finder.getRootView(source), views);
+      }
+      return views.get(id);
+    }
+
+    private static void index(View view, SparseArray<View> views) {
+      int id = view.getId();
+      if (id != View.NO_ID && views.indexOfKey(id) < 0) {
+        views.put(id, view);
+      }
+      if (view instanceof ViewGroup) {
+        ViewGroup group = (ViewGroup) view;
+        for (int i = 0, count = group.getChildCount(); i < count; i++) {
+          index(group.getChildAt(i), views);
+        }
+      }
+    }
+  }
+
   /** An action that can be applied to a list of views. */
   public interface Action<T extends View> {
     /** Apply the action on the {@code view} which is at {@code index} in the list. */
@@ -162,18 +237,58 @@ public final class ButterKnife {
     void set(T view, V value, int index);
   }
 
+  /** Creates view holders of a single type for {@link #injectHolder(View, HolderFactory)}. */
+  public abstract static class HolderFactory<T> {
+    final Class<T> holderType;
+
+    protected HolderFactory(Class<T> holderType) {
+      if (holderType == null) {
+        throw new NullPointerException("holderType == null");
+      }
+      this.holderType = holderType;
+    }
+
+    /** Create a new, not yet injected, holder for the item {@code view}. */
+    public abstract T create(View view);
+  }
+
   private static final String TAG = "ButterKnife";
   private static boolean debug = false;
+  private static volatile boolean batchLookups = false;
 
-  static final Map<Class<?>, Method> INJECTORS = new LinkedHashMap<Class<?>, Method>();
-  static final Map<Class<?>, Method> RESETTERS = new LinkedHashMap<Class<?>, Method>();
-  static final Method NO_OP = null;
+  // Concurrent so that injection from background inflation threads is safe. Classes without an
+  // injector are cached as NO_OP, since a concurrent map cannot hold null values.
+  static final Map<Class<?>, Method> INJECTORS = new ConcurrentHashMap<Class<?>, Method>();
+  static final Map<Class<?>, Method> RESETTERS = new ConcurrentHashMap<Class<?>, Method>();
+  static final Method NO_OP;
+
+  static {
+    try {
+      NO_OP = ButterKnife.class.getDeclaredMethod("noOp");
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /** Sentinel target of {@link #NO_OP}. Never invoked. */
+  @SuppressWarnings("UnusedDeclaration") // Looked up reflectively.
+  private static void noOp() {
+  }
 
   /** Control whether debug logging is enabled. */
   public static void setDebug(boolean debug) {
     ButterKnife.debug = debug;
   }
 
+  /**
+   * Control whether each injection resolves its views with a single traversal of the view
+   * hierarchy instead of one {@code findViewById} call per ID. This pays off for targets which
+   * bind many views in deep layouts.
+   */
+  public static void setBatchLookups(boolean batchLookups) {
+    ButterKnife.batchLookups = batchLookups;
+  }
+
   /**
    * Inject annotated fields and methods in the specified {@link Activity}. The current content
    * view is used as the view root.
@@ -237,6 +352,59 @@ public final class ButterKnife {
     inject(target, source, Finder.DIALOG);
   }
 
+  /**
+   * Return the holder attached to the adapter item {@code view}, creating and injecting one with
+   * {@code factory} only the first time the view is seen. The holder is stored as the view's
+   * {@linkplain View#getTag() tag}, which must otherwise be unused.
+   * <p>
+   * This is the view holder binding mode of the generated injectors: the injector runs once per
+   * holder, so its listener instances and {@link InjectViews @InjectViews} lists are allocated
+   * once, and recycled views are rebound by position with a tag lookup and no allocation.
+   * Listener methods read the current item from a field which is updated on every bind:
+   * <pre><code>
+   * static final HolderFactory&lt;ItemHolder&gt; FACTORY =
+   *     new HolderFactory&lt;ItemHolder&gt;(ItemHolder.class) {
+   *       &#64;Override public ItemHolder create(View view) {
+   *         return new ItemHolder();
+   *       }
+   *     };
+   *
+   * public View getView(int position, View convertView, ViewGroup parent) {
+   *   if (convertView == null) {
+   *     convertView = inflater.inflate(R.layout.item, parent, false);
+   *   }
+   *   ItemHolder holder = ButterKnife.injectHolder(convertView, FACTORY);
+   *   holder.position = position;
+   *   holder.name.setText(getItem(position).name);
+   *   return convertView;
+   * }
+   * </code></pre>
+   *
+   * @param view Adapter item view on which IDs will be looked up.
+   * @param factory Factory for the holder. Keep a single instance to avoid allocating per bind.
+   * @throws IllegalStateException if the view's tag is set to something other than a holder of
+   * the factory's type.
+   */
+  public static <T> T injectHolder(View view, HolderFactory<T> factory) {
+    Object tag = view.getTag();
+    if (tag == null) {
+      T holder = factory.create(view);
+      inject(holder, view, Finder.VIEW);
+      view.setTag(holder);
+      return holder;
+    }
+    if (!factory.holderType.isInstance(tag)) {
+      throw new IllegalStateException("View "
+          + view
+          + " already has tag "
+          + tag
+          + " which is not a "
+          + factory.holderType.getName()
+          + ". The tag of a view passed to injectHolder is reserved for its holder.");
+    }
+    return factory.holderType.cast(tag);
+  }
+
   /**
    * Reset fields annotated with {@link InjectView @InjectView} and {@link InjectViews @InjectViews}
    * to {@code null}.
@@ -250,7 +418,7 @@ public final class ButterKnife {
     try {
       if (debug) Log.d(TAG, "Looking up view injector for " + targetClass.getName());
       Method reset = findResettersForClass(targetClass);
-      if (reset != null) {
+      if (reset != NO_OP) {
         reset.invoke(null, target);
       }
     } catch (RuntimeException e) {
@@ -269,8 +437,17 @@ public final class ButterKnife {
     try {
       if (debug) Log.d(TAG, "Looking up view injector for " + targetClass.getName());
       Method inject = findInjectorForClass(targetClass);
-      if (inject != null) {
-        inject.invoke(null, finder, target, source);
+      if (inject != NO_OP) {
+        if (batchLookups) {
+          ViewIndex previous = Finder.beginBatch(source);
+          try {
+            inject.invoke(null, finder, target, source);
+          } finally {
+            Finder.endBatch(previous);
+          }
+        } else {
+          inject.invoke(null, finder, target, source);
+        }
       }
     } catch (RuntimeException e) {
       throw e;
@@ -309,7 +486,7 @@ public final class ButterKnife {
   private static Method findResettersForClass(Class<?> cls) throws NoSuchMethodException {
     Method inject = RESETTERS.get(cls);
     if (inject != null) {
-      if (debug) Log.d(TAG, "HIT: Cached in injector map.");
+      if (debug) Log.d(TAG, "HIT: Cached in resetter map.");
       return inject;
     }
     String clsName = cls.getName();
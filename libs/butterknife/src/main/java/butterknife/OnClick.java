@@ -1,6 +1,7 @@
 package butterknife;
 
 import android.view.View;
+import butterknife.internal.DebouncingOnClickListener;
 import butterknife.internal.ListenerClass;
 import butterknife.internal.ListenerMethod;
 import java.lang.annotation.Retention;
@@ -20,6 +21,15 @@ import static java.lang.annotation.RetentionPolicy.CLASS;
  * Any number of parameters from
  * {@link OnClickListener#onClick(android.view.View) onClick} may be used on the
  * method.
+ * <p>
+ * Clicks are debounced per view: a click arriving within {@link #debounce()} milliseconds of the
+ * previous accepted one on the same view is dropped. When multiple IDs are specified each view
+ * keeps its own window, so rapid taps on different views are all delivered.
+ * <pre><code>
+ * {@literal @}OnClick(value = R.id.submit, debounce = 500) void onSubmit() {
+ *   // Submit once, even on a double tap.
+ * }
+ * </code></pre>
  *
  * @see OnClickListener
  * @see Optional
@@ -38,4 +48,10 @@ import static java.lang.annotation.RetentionPolicy.CLASS;
 public @interface OnClick {
   /** View IDs to which the method will be bound. */
   int[] value() default { View.NO_ID };
+
+  /**
+   * Window in milliseconds during which further clicks on the same view are ignored. If multiple
+   * methods are bound to one view the largest window applies.
+   */
+  int debounce() default DebouncingOnClickListener.DEFAULT_DEBOUNCE;
 }
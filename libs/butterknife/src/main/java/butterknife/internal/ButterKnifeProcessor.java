@@ -15,6 +15,7 @@ import butterknife.OnPageChange;
 import butterknife.OnTextChanged;
 import butterknife.OnTouch;
 import butterknife.Optional;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -107,10 +108,12 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
 
       try {
         JavaFileObject jfo = filer.createSourceFile(viewInjector.getFqcn(), typeElement);
-        Writer writer = jfo.openWriter();
-        writer.write(viewInjector.brewJava());
-        writer.flush();
-        writer.close();
+        Writer writer = new BufferedWriter(jfo.openWriter());
+        try {
+          viewInjector.brewJava(writer);
+        } finally {
+          writer.close();
+        }
       } catch (IOException e) {
         error(typeElement, "Unable to write injector for type %s: %s", typeElement, e.getMessage());
       }
@@ -121,12 +124,11 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
 
   private Map<TypeElement, ViewInjector> findAndParseTargets(RoundEnvironment env) {
     Map<TypeElement, ViewInjector> targetClassMap = new LinkedHashMap<TypeElement, ViewInjector>();
-    Set<String> erasedTargetNames = new LinkedHashSet<String>();
 
     // Process each @InjectView element.
     for (Element element : env.getElementsAnnotatedWith(InjectView.class)) {
       try {
-        parseInjectView(element, targetClassMap, erasedTargetNames);
+        parseInjectView(element, targetClassMap);
       } catch (Exception e) {
         StringWriter stackTrace = new StringWriter();
         e.printStackTrace(new PrintWriter(stackTrace));
@@ -138,7 +140,7 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     // Process each @InjectViews element.
     for (Element element : env.getElementsAnnotatedWith(InjectViews.class)) {
       try {
-        parseInjectViews(element, targetClassMap, erasedTargetNames);
+        parseInjectViews(element, targetClassMap);
       } catch (Exception e) {
         StringWriter stackTrace = new StringWriter();
         e.printStackTrace(new PrintWriter(stackTrace));
@@ -149,12 +151,13 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
 
     // Process each annotation that corresponds to a listener.
     for (Class<? extends Annotation> listener : LISTENERS) {
-      findAndParseListener(env, listener, targetClassMap, erasedTargetNames);
+      findAndParseListener(env, listener, targetClassMap);
     }
 
-    // Try to find a parent injector for each injector.
+    // Try to find a parent injector for each injector. This only looks at the target's own
+    // superclasses so that each generated injector depends solely on its originating type.
     for (Map.Entry<TypeElement, ViewInjector> entry : targetClassMap.entrySet()) {
-      String parentClassFqcn = findParentFqcn(entry.getKey(), erasedTargetNames);
+      String parentClassFqcn = findParentFqcn(entry.getKey());
       if (parentClassFqcn != null) {
         entry.getValue().setParentInjector(parentClassFqcn + SUFFIX);
       }
@@ -215,8 +218,7 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     return false;
   }
 
-  private void parseInjectView(Element element, Map<TypeElement, ViewInjector> targetClassMap,
-      Set<String> erasedTargetNames) {
+  private void parseInjectView(Element element, Map<TypeElement, ViewInjector> targetClassMap) {
     boolean hasError = false;
     TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
 
@@ -273,13 +275,9 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     ViewInjector viewInjector = getOrCreateTargetClass(targetClassMap, enclosingElement);
     ViewBinding binding = new ViewBinding(name, type, required);
     viewInjector.addView(id, binding);
-
-    // Add the type-erased version to the valid injection targets set.
-    erasedTargetNames.add(enclosingElement.toString());
   }
 
-  private void parseInjectViews(Element element, Map<TypeElement, ViewInjector> targetClassMap,
-      Set<String> erasedTargetNames) {
+  private void parseInjectViews(Element element, Map<TypeElement, ViewInjector> targetClassMap) {
     boolean hasError = false;
     TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
 
@@ -350,8 +348,6 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     ViewInjector viewInjector = getOrCreateTargetClass(targetClassMap, enclosingElement);
     CollectionBinding binding = new CollectionBinding(name, type, kind, required);
     viewInjector.addCollection(ids, binding);
-
-    erasedTargetNames.add(enclosingElement.toString());
   }
 
   /** Returns the first duplicate element inside an array, null if there are no duplicates. */
@@ -378,11 +374,10 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
   }
 
   private void findAndParseListener(RoundEnvironment env,
-      Class<? extends Annotation> annotationClass, Map<TypeElement, ViewInjector> targetClassMap,
-      Set<String> erasedTargetNames) {
+      Class<? extends Annotation> annotationClass, Map<TypeElement, ViewInjector> targetClassMap) {
     for (Element element : env.getElementsAnnotatedWith(annotationClass)) {
       try {
-        parseListenerAnnotation(annotationClass, element, targetClassMap, erasedTargetNames);
+        parseListenerAnnotation(annotationClass, element, targetClassMap);
       } catch (Exception e) {
         StringWriter stackTrace = new StringWriter();
         e.printStackTrace(new PrintWriter(stackTrace));
@@ -394,8 +389,7 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
   }
 
   private void parseListenerAnnotation(Class<? extends Annotation> annotationClass, Element element,
-      Map<TypeElement, ViewInjector> targetClassMap, Set<String> erasedTargetNames)
-      throws Exception {
+      Map<TypeElement, ViewInjector> targetClassMap) throws Exception {
     // This should be guarded by the annotation's @Target but it's worth a check for safe casting.
     if (!(element instanceof ExecutableElement) || element.getKind() != METHOD) {
       throw new IllegalStateException(
@@ -416,11 +410,22 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     int[] ids = (int[]) annotationValue.invoke(annotation);
     String name = executableElement.getSimpleName().toString();
     boolean required = element.getAnnotation(Optional.class) == null;
+    int debounce = ListenerBinding.NO_DEBOUNCE;
+    if (annotation instanceof OnClick) {
+      debounce = ((OnClick) annotation).debounce();
+    }
 
     // Verify that the method and its containing class are accessible via generated code.
     boolean hasError = isInaccessibleViaGeneratedCode(annotationClass, "methods", element);
     hasError |= isBindingInWrongPackage(annotationClass, element);
 
+    if (annotation instanceof OnClick && debounce < 0) {
+      error(element, "@%s debounce must not be negative. (%s.%s)",
+          annotationClass.getSimpleName(), enclosingElement.getQualifiedName(),
+          element.getSimpleName());
+      hasError = true;
+    }
+
     Integer duplicateId = findDuplicate(ids);
     if (duplicateId != null) {
       error(element, "@%s annotation for method contains duplicate ID %d. (%s.%s)",
@@ -575,7 +580,8 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
       }
     }
 
-    ListenerBinding binding = new ListenerBinding(name, Arrays.asList(parameters), required);
+    ListenerBinding binding =
+        new ListenerBinding(name, Arrays.asList(parameters), required, debounce);
     ViewInjector viewInjector = getOrCreateTargetClass(targetClassMap, enclosingElement);
     for (int id : ids) {
       if (!viewInjector.addListener(id, listener, method, binding)) {
@@ -584,9 +590,6 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         return;
       }
     }
-
-    // Add the type-erased version to the valid injection targets set.
-    erasedTargetNames.add(enclosingElement.toString());
   }
 
   private boolean isSubtypeOfType(TypeMirror typeMirror, String otherType) {
@@ -648,8 +651,11 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     return type.getQualifiedName().toString().substring(packageLen).replace('.', '$');
   }
 
-  /** Finds the parent injector type in the supplied set, if any. */
-  private String findParentFqcn(TypeElement typeElement, Set<String> parents) {
+  /**
+   * Finds the nearest superclass which declares bindings, if any. Only the supertypes of the target
+   * are consulted (and not the other targets of this round) so that the processor stays isolating.
+   */
+  private String findParentFqcn(TypeElement typeElement) {
     TypeMirror type;
     while (true) {
       type = typeElement.getSuperclass();
@@ -657,13 +663,33 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         return null;
       }
       typeElement = (TypeElement) ((DeclaredType) type).asElement();
-      if (parents.contains(typeElement.toString())) {
+      String qualifiedName = typeElement.getQualifiedName().toString();
+      if (qualifiedName.startsWith(ANDROID_PREFIX) || qualifiedName.startsWith(JAVA_PREFIX)) {
+        return null;
+      }
+      if (hasBindings(typeElement)) {
         String packageName = getPackageName(typeElement);
         return packageName + "." + getClassName(typeElement, packageName);
       }
     }
   }
 
+  /** Returns true if any member of {@code typeElement} carries a Butter Knife annotation. */
+  private static boolean hasBindings(TypeElement typeElement) {
+    for (Element member : typeElement.getEnclosedElements()) {
+      if (member.getAnnotation(InjectView.class) != null
+          || member.getAnnotation(InjectViews.class) != null) {
+        return true;
+      }
+      for (Class<? extends Annotation> listener : LISTENERS) {
+        if (member.getAnnotation(listener) != null) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   @Override public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
   }
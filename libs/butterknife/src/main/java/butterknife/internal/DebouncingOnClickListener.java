@@ -1,27 +1,61 @@
 package butterknife.internal;
 
+import android.os.SystemClock;
 import android.view.View;
 
 /**
- * A {@linkplain View.OnClickListener click listener} that debounces multiple clicks posted in the
- * same frame. A click on one button disables all buttons for that frame.
+ * A {@linkplain View.OnClickListener click listener} that debounces clicks. Clicks arriving within
+ * the debounce window of the last accepted click on the same view are dropped. The window is
+ * tracked per clicked view, so one listener may be shared by several views (as it is for
+ * {@code @OnClick} with multiple IDs) without a click on one blocking the others.
  */
 public abstract class DebouncingOnClickListener implements View.OnClickListener {
-  private static boolean enabled = true;
+  /** Default debounce window in milliseconds, roughly one frame. */
+  public static final int DEFAULT_DEBOUNCE = 16;
 
-  private static final Runnable ENABLE_AGAIN = new Runnable() {
-    @Override public void run() {
-      enabled = true;
-    }
-  };
+  private static final View[] NO_VIEWS = new View[0];
+  private static final long[] NO_TIMES = new long[0];
+
+  private final int debounce;
+  // Parallel arrays of the views clicked so far and the time before which each drops clicks. They
+  // only grow the first time a view is clicked and are bounded by the views sharing this listener.
+  private View[] views = NO_VIEWS;
+  private long[] nextClickTimes = NO_TIMES;
+
+  public DebouncingOnClickListener() {
+    this(DEFAULT_DEBOUNCE);
+  }
+
+  public DebouncingOnClickListener(int debounce) {
+    this.debounce = debounce;
+  }
 
   @Override public final void onClick(View v) {
-    if (enabled) {
-      enabled = false;
-      v.post(ENABLE_AGAIN);
+    long now = SystemClock.uptimeMillis();
+    int index = indexOf(v);
+    if (now >= nextClickTimes[index]) {
+      nextClickTimes[index] = now + debounce;
       doClick(v);
     }
   }
 
   public abstract void doClick(View v);
+
+  private int indexOf(View v) {
+    View[] views = this.views;
+    for (int i = 0; i < views.length; i++) {
+      if (views[i] == v) {
+        return i;
+      }
+    }
+    int index = views.length;
+    View[] newViews = new View[index + 1];
+    long[] newTimes = new long[index + 1];
+    System.arraycopy(views, 0, newViews, 0, index);
+    System.arraycopy(nextClickTimes, 0, newTimes, 0, index);
+    newViews[index] = v;
+    this.views = newViews;
+    this.nextClickTimes = newTimes;
+    return index;
+  }
 }
@@ -5,14 +5,19 @@ import java.util.Collections;
 import java.util.List;
 
 final class ListenerBinding implements Binding {
+  /** Debounce value for listeners which do not support debouncing. */
+  static final int NO_DEBOUNCE = -1;
+
   private final String name;
   private final List<Parameter> parameters;
   private final boolean required;
+  private final int debounce;
 
-  ListenerBinding(String name, List<Parameter> parameters, boolean required) {
+  ListenerBinding(String name, List<Parameter> parameters, boolean required, int debounce) {
     this.name = name;
     this.parameters = Collections.unmodifiableList(new ArrayList<Parameter>(parameters));
     this.required = required;
+    this.debounce = debounce;
   }
 
   public String getName() {
@@ -30,4 +35,8 @@ final class ListenerBinding implements Binding {
   public boolean isRequired() {
     return required;
   }
+
+  public int getDebounce() {
+    return debounce;
+  }
 }
@@ -1,6 +1,8 @@
 package butterknife.internal;
 
 import android.view.View;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,57 +70,116 @@ final class ViewInjector {
     return classPackage + "." + className;
   }
 
-  String brewJava() {
-    StringBuilder builder = new StringBuilder();
-    builder.append("// Generated code from Butter Knife. Do not modify!\n");
-    builder.append("package ").append(classPackage).append(";\n\n");
-    builder.append("import android.view.View;\n");
-    builder.append("import butterknife.ButterKnife.Finder;\n\n");
-    builder.append("public class ").append(className).append(" {\n");
-    emitInject(builder);
-    builder.append('\n');
-    emitReset(builder);
-    builder.append("}\n");
-    return builder.toString();
+  void brewJava(Writer writer) throws IOException {
+    writer.write("// Generated code from Butter Knife. Do not modify!\n");
+    writer.append("package ").append(classPackage).append(";\n\n");
+    writer.write("import android.view.View;\n");
+    writer.write("import butterknife.ButterKnife.Finder;\n\n");
+    writer.append("public class ").append(className).append(" {\n");
+    emitInject(writer);
+    writer.write('\n');
+    emitReset(writer);
+    writer.write("}\n");
   }
 
-  private void emitInject(StringBuilder builder) {
-    builder.append("  public static void inject(Finder finder, final ")
+  private void emitInject(Writer writer) throws IOException {
+    writer.append("  public static void inject(Finder finder, final ")
         .append(targetClass)
         .append(" target, Object source) {\n");
 
     // Emit a call to the superclass injector, if any.
     if (parentInjector != null) {
-      builder.append("    ")
+      writer.append("    ")
           .append(parentInjector)
           .append(".inject(finder, target, source);\n\n");
     }
 
     // Local variable in which all views will be temporarily stored.
-    builder.append("    View view;\n");
+    writer.write("    View view;\n");
+
+    // Listeners which are bound identically on more than one view are created once and shared.
+    Map<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, String>> sharedListeners =
+        emitSharedListeners(writer);
 
     // Loop over each view injection and emit it.
     for (ViewInjection injection : viewIdMap.values()) {
-      emitViewInjection(builder, injection);
+      emitViewInjection(writer, injection, sharedListeners);
     }
 
     // Loop over each collection binding and emit it.
     for (Map.Entry<CollectionBinding, int[]> entry : collectionBindings.entrySet()) {
-      emitCollectionBinding(builder, entry.getKey(), entry.getValue());
+      emitCollectionBinding(writer, entry.getKey(), entry.getValue());
     }
 
-    builder.append("  }\n");
+    writer.write("  }\n");
   }
 
-  private void emitCollectionBinding(StringBuilder builder, CollectionBinding binding, int[] ids) {
-    builder.append("    target.").append(binding.getName()).append(" = ");
+  /**
+   * Emits a local variable for each listener whose method bindings are used by more than one view
+   * and returns the variable names keyed by listener class and method bindings.
+   */
+  private Map<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, String>>
+      emitSharedListeners(Writer writer) throws IOException {
+    Map<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, Integer>> counts =
+        new LinkedHashMap<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, Integer>>();
+    for (ViewInjection injection : viewIdMap.values()) {
+      for (Map.Entry<ListenerClass, Map<ListenerMethod, Set<ListenerBinding>>> e
+          : injection.getListenerBindings().entrySet()) {
+        Map<Map<ListenerMethod, Set<ListenerBinding>>, Integer> listenerCounts =
+            counts.get(e.getKey());
+        if (listenerCounts == null) {
+          listenerCounts = new LinkedHashMap<Map<ListenerMethod, Set<ListenerBinding>>, Integer>();
+          counts.put(e.getKey(), listenerCounts);
+        }
+        Integer count = listenerCounts.get(e.getValue());
+        listenerCounts.put(e.getValue(), count == null ? 1 : count + 1);
+      }
+    }
+
+    Map<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, String>> sharedListeners =
+        new LinkedHashMap<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, String>>();
+    int index = 0;
+    for (Map.Entry<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, Integer>> e
+        : counts.entrySet()) {
+      ListenerClass listener = e.getKey();
+      for (Map.Entry<Map<ListenerMethod, Set<ListenerBinding>>, Integer> entry
+          : e.getValue().entrySet()) {
+        if (entry.getValue() < 2) {
+          continue;
+        }
+        String name = "listener" + index++;
+
+        // Emit: final TYPE NAME = new TYPE() { ... };
+        writer.append("    final ")
+            .append(listener.type())
+            .append(' ')
+            .append(name)
+            .append(" =\n");
+        emitListenerClass(writer, "      ", listener, entry.getKey());
+        writer.write(";\n");
+
+        Map<Map<ListenerMethod, Set<ListenerBinding>>, String> names =
+            sharedListeners.get(listener);
+        if (names == null) {
+          names = new LinkedHashMap<Map<ListenerMethod, Set<ListenerBinding>>, String>();
+          sharedListeners.put(listener, names);
+        }
+        names.put(entry.getKey(), name);
+      }
+    }
+    return sharedListeners;
+  }
+
+  private void emitCollectionBinding(Writer writer, CollectionBinding binding, int[] ids)
+      throws IOException {
+    writer.append("    target.").append(binding.getName()).append(" = ");
 
     switch (binding.getKind()) {
       case ARRAY:
-        builder.append("Finder.arrayOf(");
+        writer.write("Finder.arrayOf(");
         break;
       case LIST:
-        builder.append("Finder.listOf(");
+        writer.write("Finder.listOf(");
         break;
       default:
         throw new IllegalStateException("Unknown kind: " + binding.getKind());
@@ -126,66 +187,72 @@ final class ViewInjector {
 
     for (int i = 0; i < ids.length; i++) {
       if (i > 0) {
-        builder.append(',');
+        writer.write(',');
       }
-      builder.append("\n        ");
-      emitCastIfNeeded(builder, binding.getType());
+      writer.write("\n        ");
+      emitCastIfNeeded(writer, binding.getType());
       if (binding.isRequired()) {
-        builder.append("finder.findRequiredView(source, ")
-            .append(ids[i])
+        writer.append("finder.findRequiredView(source, ")
+            .append(String.valueOf(ids[i]))
             .append(", \"")
             .append(binding.getName())
             .append("\")");
       } else {
-        builder.append("finder.findOptionalView(source, ")
-            .append(ids[i])
+        writer.append("finder.findOptionalView(source, ")
+            .append(String.valueOf(ids[i]))
             .append(")");
       }
     }
 
-    builder.append("\n    );");
+    writer.write("\n    );");
   }
 
-  private void emitViewInjection(StringBuilder builder, ViewInjection injection) {
-    builder.append("    view = ");
+  private void emitViewInjection(Writer writer, ViewInjection injection,
+      Map<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, String>> sharedListeners)
+      throws IOException {
+    writer.write("    view = ");
 
     List<Binding> requiredBindings = injection.getRequiredBindings();
     if (requiredBindings.isEmpty()) {
-      builder.append("finder.findOptionalView(source, ")
-          .append(injection.getId())
+      writer.append("finder.findOptionalView(source, ")
+          .append(String.valueOf(injection.getId()))
           .append(");\n");
     } else {
       if (injection.getId() == View.NO_ID) {
-        builder.append("target;\n");
+        writer.write("target;\n");
       } else {
-        builder.append("finder.findRequiredView(source, ")
-            .append(injection.getId())
-            .append(", \"");
-        emitHumanDescription(builder, requiredBindings);
-        builder.append("\");\n");
+        StringBuilder description = new StringBuilder();
+        emitHumanDescription(description, requiredBindings);
+        writer.append("finder.findRequiredView(source, ")
+            .append(String.valueOf(injection.getId()))
+            .append(", \"")
+            .append(description)
+            .append("\");\n");
       }
     }
 
-    emitViewBindings(builder, injection);
-    emitListenerBindings(builder, injection);
+    emitViewBindings(writer, injection);
+    emitListenerBindings(writer, injection, sharedListeners);
   }
 
-  private void emitViewBindings(StringBuilder builder, ViewInjection injection) {
+  private void emitViewBindings(Writer writer, ViewInjection injection) throws IOException {
     Collection<ViewBinding> viewBindings = injection.getViewBindings();
     if (viewBindings.isEmpty()) {
       return;
     }
 
     for (ViewBinding viewBinding : viewBindings) {
-      builder.append("    target.")
+      writer.append("    target.")
           .append(viewBinding.getName())
           .append(" = ");
-      emitCastIfNeeded(builder, viewBinding.getType());
-      builder.append("view;\n");
+      emitCastIfNeeded(writer, viewBinding.getType());
+      writer.write("view;\n");
     }
   }
 
-  private void emitListenerBindings(StringBuilder builder, ViewInjection injection) {
+  private void emitListenerBindings(Writer writer, ViewInjection injection,
+      Map<ListenerClass, Map<Map<ListenerMethod, Set<ListenerBinding>>, String>> sharedListeners)
+      throws IOException {
     Map<ListenerClass, Map<ListenerMethod, Set<ListenerBinding>>> bindings =
         injection.getListenerBindings();
     if (bindings.isEmpty()) {
@@ -197,7 +264,7 @@ final class ViewInjector {
     // We only need to emit the null check if there are zero required bindings.
     boolean needsNullChecked = injection.getRequiredBindings().isEmpty();
     if (needsNullChecked) {
-      builder.append("    if (view != null) {\n");
+      writer.write("    if (view != null) {\n");
       extraIndent = "  ";
     }
 
@@ -208,108 +275,141 @@ final class ViewInjector {
 
       // Emit: ((OWNER_TYPE) view).SETTER_NAME(
       boolean needsCast = !VIEW_TYPE.equals(listener.targetType());
-      builder.append(extraIndent)
+      writer.append(extraIndent)
           .append("    ");
       if (needsCast) {
-        builder.append("((").append(listener.targetType());
+        writer.append("((").append(listener.targetType());
         if (listener.genericArguments() > 0) {
-          builder.append('<');
+          writer.write('<');
           for (int i = 0; i < listener.genericArguments(); i++) {
             if (i > 0) {
-              builder.append(", ");
+              writer.write(", ");
             }
-            builder.append('?');
+            writer.write('?');
           }
-          builder.append('>');
+          writer.write('>');
         }
-        builder.append(") ");
+        writer.write(") ");
       }
-      builder.append("view");
+      writer.write("view");
       if (needsCast) {
-        builder.append(')');
+        writer.write(')');
       }
-      builder.append('.')
+      writer.append('.')
           .append(listener.setter())
+          .append('(');
+
+      Map<Map<ListenerMethod, Set<ListenerBinding>>, String> names = sharedListeners.get(listener);
+      String sharedName = names != null ? names.get(methodBindings) : null;
+      if (sharedName != null) {
+        // Emit: NAME);
+        writer.append(sharedName).append(");\n");
+      } else {
+        // Emit: new TYPE() { ... });
+        writer.write('\n');
+        emitListenerClass(writer, extraIndent + "      ", listener, methodBindings);
+        writer.write(");\n");
+      }
+    }
+
+    if (needsNullChecked) {
+      writer.write("    }\n");
+    }
+  }
+
+  /** Emits an anonymous listener class starting at {@code indent}, without a trailing newline. */
+  private static void emitListenerClass(Writer writer, String indent, ListenerClass listener,
+      Map<ListenerMethod, Set<ListenerBinding>> methodBindings) throws IOException {
+    // Emit: new TYPE() { or, for a non-default debounce window, new TYPE(DEBOUNCE) {
+    writer.append(indent)
+        .append("new ")
+        .append(listener.type())
+        .append('(');
+    int debounce = getDebounce(methodBindings);
+    if (debounce != ListenerBinding.NO_DEBOUNCE
+        && debounce != DebouncingOnClickListener.DEFAULT_DEBOUNCE) {
+      writer.write(String.valueOf(debounce));
+    }
+    writer.write(") {\n");
+
+    for (ListenerMethod method : getListenerMethods(listener)) {
+      // Emit: @Override public RETURN_TYPE METHOD_NAME(
+      writer.append(indent)
+          .append("  @Override public ")
+          .append(method.returnType())
+          .append(' ')
+          .append(method.name())
           .append("(\n");
 
-      // Emit: new TYPE() {
-      builder.append(extraIndent)
-          .append("      new ")
-          .append(listener.type())
-          .append("() {\n");
-
-      for (ListenerMethod method : getListenerMethods(listener)) {
-        // Emit: @Override public RETURN_TYPE METHOD_NAME(
-        builder.append(extraIndent)
-            .append("        @Override public ")
-            .append(method.returnType())
-            .append(' ')
-            .append(method.name())
-            .append("(\n");
-
-        // Emit listener method arguments, each on their own line.
-        String[] parameterTypes = method.parameters();
-        for (int i = 0, count = parameterTypes.length; i < count; i++) {
-          builder.append(extraIndent)
-              .append("          ")
-              .append(parameterTypes[i])
-              .append(" p")
-              .append(i);
-          if (i < count - 1) {
-            builder.append(',');
-          }
-          builder.append('\n');
+      // Emit listener method arguments, each on their own line.
+      String[] parameterTypes = method.parameters();
+      for (int i = 0, count = parameterTypes.length; i < count; i++) {
+        writer.append(indent)
+            .append("    ")
+            .append(parameterTypes[i])
+            .append(" p")
+            .append(String.valueOf(i));
+        if (i < count - 1) {
+          writer.write(',');
         }
+        writer.write('\n');
+      }
 
-        // Emit end of parameters, start of body.
-        builder.append(extraIndent).append("        ) {\n");
+      // Emit end of parameters, start of body.
+      writer.append(indent).append("  ) {\n");
 
-        // Set up the return statement, if needed.
-        builder.append(extraIndent).append("          ");
-        boolean hasReturnType = !"void".equals(method.returnType());
-        if (hasReturnType) {
-          builder.append("return ");
-        }
+      // Set up the return statement, if needed.
+      writer.append(indent).append("    ");
+      boolean hasReturnType = !"void".equals(method.returnType());
+      if (hasReturnType) {
+        writer.write("return ");
+      }
 
-        if (methodBindings.containsKey(method)) {
-          Set<ListenerBinding> set = methodBindings.get(method);
-          Iterator<ListenerBinding> iterator = set.iterator();
-
-          while (iterator.hasNext()) {
-            ListenerBinding binding = iterator.next();
-            builder.append("target.").append(binding.getName()).append('(');
-            List<Parameter> parameters = binding.getParameters();
-            String[] listenerParameters = method.parameters();
-            for (int i = 0, count = parameters.size(); i < count; i++) {
-              Parameter parameter = parameters.get(i);
-              int listenerPosition = parameter.getListenerPosition();
-              emitCastIfNeeded(builder, listenerParameters[listenerPosition], parameter.getType());
-              builder.append('p').append(listenerPosition);
-              if (i < count - 1) {
-                builder.append(", ");
-              }
-            }
-            builder.append(");");
-            if (iterator.hasNext()) {
-              builder.append("\n").append("          ");
+      if (methodBindings.containsKey(method)) {
+        Set<ListenerBinding> set = methodBindings.get(method);
+        Iterator<ListenerBinding> iterator = set.iterator();
+
+        while (iterator.hasNext()) {
+          ListenerBinding binding = iterator.next();
+          writer.append("target.").append(binding.getName()).append('(');
+          List<Parameter> parameters = binding.getParameters();
+          String[] listenerParameters = method.parameters();
+          for (int i = 0, count = parameters.size(); i < count; i++) {
+            Parameter parameter = parameters.get(i);
+            int listenerPosition = parameter.getListenerPosition();
+            emitCastIfNeeded(writer, listenerParameters[listenerPosition], parameter.getType());
+            writer.append('p').append(String.valueOf(listenerPosition));
+            if (i < count - 1) {
+              writer.write(", ");
             }
           }
-        } else if (hasReturnType) {
-          builder.append(method.defaultReturn()).append(';');
+          writer.write(");");
+          if (iterator.hasNext()) {
+            writer.append('\n').append(indent).append("    ");
+          }
         }
-        builder.append('\n');
-
-        // Emit end of listener method.
-        builder.append(extraIndent).append("        }\n");
+      } else if (hasReturnType) {
+        writer.append(method.defaultReturn()).append(';');
       }
+      writer.write('\n');
 
-      // Emit end of listener class body and close the setter method call.
-      builder.append(extraIndent).append("      });\n");
+      // Emit end of listener method.
+      writer.append(indent).append("  }\n");
     }
 
-    if (needsNullChecked) {
-      builder.append("    }\n");
+    // Emit end of listener class body.
+    writer.append(indent).append('}');
+  }
+
+  /** Returns the largest debounce window of the bindings, if any of them support debouncing. */
+  static int getDebounce(Map<ListenerMethod, Set<ListenerBinding>> methodBindings) {
+    int debounce = ListenerBinding.NO_DEBOUNCE;
+    for (Set<ListenerBinding> bindings : methodBindings.values()) {
+      for (ListenerBinding binding : bindings) {
+        debounce = Math.max(debounce, binding.getDebounce());
+      }
     }
+    return debounce;
   }
 
   static List<ListenerMethod> getListenerMethods(ListenerClass listener) {
@@ -336,32 +436,33 @@ final class ViewInjector {
     }
   }
 
-  private void emitReset(StringBuilder builder) {
-    builder.append("  public static void reset(").append(targetClass).append(" target) {\n");
+  private void emitReset(Writer writer) throws IOException {
+    writer.append("  public static void reset(").append(targetClass).append(" target) {\n");
     if (parentInjector != null) {
-      builder.append("    ")
+      writer.append("    ")
           .append(parentInjector)
           .append(".reset(target);\n\n");
     }
     for (ViewInjection injection : viewIdMap.values()) {
       for (ViewBinding viewBinding : injection.getViewBindings()) {
-        builder.append("    target.").append(viewBinding.getName()).append(" = null;\n");
+        writer.append("    target.").append(viewBinding.getName()).append(" = null;\n");
       }
     }
     for (CollectionBinding collectionBinding : collectionBindings.keySet()) {
-      builder.append("    target.").append(collectionBinding.getName()).append(" = null;\n");
+      writer.append("    target.").append(collectionBinding.getName()).append(" = null;\n");
     }
-    builder.append("  }\n");
+    writer.write("  }\n");
   }
 
-  static void emitCastIfNeeded(StringBuilder builder, String viewType) {
-    emitCastIfNeeded(builder, VIEW_TYPE, viewType);
+  static void emitCastIfNeeded(Writer writer, String viewType) throws IOException {
+    emitCastIfNeeded(writer, VIEW_TYPE, viewType);
   }
 
-  static void emitCastIfNeeded(StringBuilder builder, String sourceType, String destinationType) {
+  static void emitCastIfNeeded(Writer writer, String sourceType, String destinationType)
+      throws IOException {
     // Only emit a cast if the source and destination type do not match.
     if (!sourceType.equals(destinationType)) {
-      builder.append('(').append(destinationType).append(") ");
+      writer.append('(').append(destinationType).append(") ");
     }
   }
 
@@ -3,6 +3,7 @@ package butterknife;
 import android.app.Activity;
 import android.util.Property;
 import android.view.View;
+import android.widget.FrameLayout;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.After;
@@ -16,6 +17,7 @@ import org.robolectric.annotation.Config;
 import static org.fest.assertions.api.ANDROID.assertThat;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.fest.assertions.api.Assertions.entry;
+import static org.junit.Assert.fail;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(manifest = Config.NONE)
@@ -46,6 +48,7 @@ public class ButterKnifeTest {
   public void resetViewsCache() {
     ButterKnife.INJECTORS.clear();
     ButterKnife.RESETTERS.clear();
+    ButterKnife.setBatchLookups(false);
   }
 
   @Test public void propertyAppliedToEveryView() {
@@ -114,6 +117,20 @@ public class ButterKnifeTest {
     assertThat(ButterKnife.RESETTERS).contains(entry(Example.class, ButterKnife.NO_OP));
   }
 
+  @Test public void zeroInjectionsCachesEntireSuperclassChain() {
+    class Parent {
+    }
+    class Child extends Parent {
+    }
+
+    ButterKnife.inject(new Child(), null, null);
+    assertThat(ButterKnife.INJECTORS).contains(entry(Child.class, ButterKnife.NO_OP),
+        entry(Parent.class, ButterKnife.NO_OP));
+    ButterKnife.reset(new Child());
+    assertThat(ButterKnife.RESETTERS).contains(entry(Child.class, ButterKnife.NO_OP),
+        entry(Parent.class, ButterKnife.NO_OP));
+  }
+
   @Test public void injectingKnownPackagesIsNoOp() {
     ButterKnife.inject(new Activity());
     assertThat(ButterKnife.INJECTORS).isEmpty();
@@ -125,6 +142,108 @@ public class ButterKnifeTest {
     assertThat(ButterKnife.RESETTERS).isEmpty();
   }
 
+  @Test public void batchedFinderMatchesFindViewById() {
+    FrameLayout root = new FrameLayout(Robolectric.application);
+    FrameLayout group = new FrameLayout(Robolectric.application);
+    group.setId(1);
+    View first = new View(Robolectric.application);
+    first.setId(2);
+    View duplicate = new View(Robolectric.application);
+    duplicate.setId(2);
+    View other = new View(Robolectric.application);
+    other.setId(3);
+    group.addView(first);
+    root.addView(group);
+    root.addView(duplicate);
+    root.addView(other);
+
+    ButterKnife.ViewIndex previous = ButterKnife.Finder.beginBatch(root);
+    try {
+      assertThat(ButterKnife.Finder.VIEW.findOptionalView(root, 1)).isSameAs(group);
+      assertThat(ButterKnife.Finder.VIEW.findOptionalView(root, 2)).isSameAs(first)
+          .isSameAs(root.findViewById(2));
+      assertThat(ButterKnife.Finder.VIEW.findOptionalView(root, 3)).isSameAs(other);
+      assertThat(ButterKnife.Finder.VIEW.findOptionalView(root, 4)).isNull();
+    } finally {
+      ButterKnife.Finder.endBatch(previous);
+    }
+  }
+
+  @Test public void batchedInjectMatchesFirstViewInPreOrder() {
+    FrameLayout root = new FrameLayout(Robolectric.application);
+    FrameLayout group = new FrameLayout(Robolectric.application);
+    View first = new View(Robolectric.application);
+    first.setId(2);
+    View duplicate = new View(Robolectric.application);
+    duplicate.setId(2);
+    View other = new View(Robolectric.application);
+    other.setId(3);
+    group.addView(first);
+    root.addView(group);
+    root.addView(duplicate);
+    root.addView(other);
+
+    ButterKnife.setBatchLookups(true);
+    BatchTarget target = new BatchTarget();
+    ButterKnife.inject(target, root);
+
+    assertThat(target.index).isNotNull();
+    assertThat(target.index.source).isSameAs(root);
+    assertThat(target.first).isSameAs(first).isSameAs(root.findViewById(2));
+    assertThat(target.other).isSameAs(other);
+
+    // The batch only lives for the duration of the injection.
+    ButterKnife.ViewIndex previous = ButterKnife.Finder.beginBatch(root);
+    ButterKnife.Finder.endBatch(previous);
+    assertThat(previous).isNull();
+  }
+
+  @Test public void injectHolderCreatesOncePerView() {
+    class Holder {
+    }
+    final int[] created = new int[1];
+    ButterKnife.HolderFactory<Holder> factory =
+        new ButterKnife.HolderFactory<Holder>(Holder.class) {
+          @Override public Holder create(View view) {
+            created[0]++;
+            return new Holder();
+          }
+        };
+
+    View view = new View(Robolectric.application);
+    Holder first = ButterKnife.injectHolder(view, factory);
+    Holder second = ButterKnife.injectHolder(view, factory);
+    assertThat(second).isSameAs(first);
+    assertThat(view.getTag()).isSameAs(first);
+    assertThat(created[0]).isEqualTo(1);
+
+    Holder other = ButterKnife.injectHolder(new View(Robolectric.application), factory);
+    assertThat(other).isNotSameAs(first);
+    assertThat(created[0]).isEqualTo(2);
+  }
+
+  @Test public void injectHolderRejectsForeignTag() {
+    class Holder {
+    }
+    ButterKnife.HolderFactory<Holder> factory =
+        new ButterKnife.HolderFactory<Holder>(Holder.class) {
+          @Override public Holder create(View view) {
+            return new Holder();
+          }
+        };
+
+    View view = new View(Robolectric.application);
+    view.setTag("foreign");
+    try {
+      ButterKnife.injectHolder(view, factory);
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).contains("already has tag foreign")
+          .contains("which is not a " + Holder.class.getName());
+    }
+    assertThat(view.getTag()).isEqualTo("foreign");
+  }
+
   @Test public void finderThrowsNiceError() {
     View view = new View(Robolectric.application);
     try {
@@ -135,4 +254,21 @@ public class ButterKnifeTest {
           + " for yo mama was not found. If this view is optional add '@Optional' annotation.");
     }
   }
+
+  static class BatchTarget {
+    ButterKnife.ViewIndex index;
+    View first;
+    View other;
+  }
+
+  /** Hand-written equivalent of a generated injector, recording the batch it ran in. */
+  public static class BatchTarget$$ViewInjector {
+    public static void inject(ButterKnife.Finder finder, BatchTarget target, Object source) {
+      ButterKnife.ViewIndex index = ButterKnife.Finder.beginBatch(source);
+      ButterKnife.Finder.endBatch(index);
+      target.index = index;
+      target.first = finder.findRequiredView(source, 2, "field 'first'");
+      target.other = finder.findRequiredView(source, 3, "field 'other'");
+    }
+  }
 }
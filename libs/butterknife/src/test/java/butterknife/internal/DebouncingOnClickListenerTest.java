@@ -0,0 +1,109 @@
+package butterknife.internal;
+
+import android.os.SystemClock;
+import android.view.View;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class DebouncingOnClickListenerTest {
+  @Test public void rapidTapsOnDifferentViewsAreIndependent() {
+    View view1 = new View(Robolectric.application);
+    View view2 = new View(Robolectric.application);
+    View view3 = new View(Robolectric.application);
+    CountingListener listener1 = new CountingListener(100);
+    CountingListener listener2 = new CountingListener(100);
+    CountingListener listener3 = new CountingListener(100);
+    view1.setOnClickListener(listener1);
+    view2.setOnClickListener(listener2);
+    view3.setOnClickListener(listener3);
+
+    for (int i = 0; i < 10; i++) {
+      view1.performClick();
+      view2.performClick();
+      view3.performClick();
+    }
+    assertThat(listener1.clicks).isEqualTo(1);
+    assertThat(listener2.clicks).isEqualTo(1);
+    assertThat(listener3.clicks).isEqualTo(1);
+
+    SystemClock.sleep(100);
+    view1.performClick();
+    view2.performClick();
+    assertThat(listener1.clicks).isEqualTo(2);
+    assertThat(listener2.clicks).isEqualTo(2);
+    assertThat(listener3.clicks).isEqualTo(1);
+  }
+
+  @Test public void sharedListenerDebouncesEachViewIndependently() {
+    // Mirrors the injector generated for @OnClick({1, 2, 3}), which shares one listener.
+    View view1 = new View(Robolectric.application);
+    View view2 = new View(Robolectric.application);
+    View view3 = new View(Robolectric.application);
+    CountingListener listener = new CountingListener(100);
+    view1.setOnClickListener(listener);
+    view2.setOnClickListener(listener);
+    view3.setOnClickListener(listener);
+
+    for (int i = 0; i < 10; i++) {
+      view1.performClick();
+      view2.performClick();
+      view3.performClick();
+    }
+    assertThat(listener.clicks).isEqualTo(3);
+
+    SystemClock.sleep(50);
+    view1.performClick();
+    assertThat(listener.clicks).isEqualTo(3);
+
+    SystemClock.sleep(50);
+    view1.performClick();
+    view1.performClick();
+    view2.performClick();
+    assertThat(listener.clicks).isEqualTo(5);
+  }
+
+  @Test public void clicksWithinWindowAreDropped() {
+    View view = new View(Robolectric.application);
+    CountingListener listener = new CountingListener(100);
+    view.setOnClickListener(listener);
+
+    view.performClick();
+    SystemClock.sleep(50);
+    view.performClick();
+    assertThat(listener.clicks).isEqualTo(1);
+
+    SystemClock.sleep(50);
+    view.performClick();
+    assertThat(listener.clicks).isEqualTo(2);
+  }
+
+  @Test public void zeroWindowNeverDrops() {
+    View view = new View(Robolectric.application);
+    CountingListener listener = new CountingListener(0);
+    view.setOnClickListener(listener);
+
+    for (int i = 0; i < 10; i++) {
+      view.performClick();
+    }
+    assertThat(listener.clicks).isEqualTo(10);
+  }
+
+  private static final class CountingListener extends DebouncingOnClickListener {
+    int clicks;
+
+    CountingListener(int debounce) {
+      super(debounce);
+    }
+
+    @Override public void doClick(View v) {
+      clicks++;
+    }
+  }
+}
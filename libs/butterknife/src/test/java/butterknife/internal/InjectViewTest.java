@@ -300,6 +300,49 @@ public class InjectViewTest {
         .generatesSources(expectedSource1, expectedSource2);
   }
 
+  @Test public void superclassWithOnlyListenersSkippingIntermediate() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+        "package test;",
+        "import android.app.Activity;",
+        "import android.view.View;",
+        "import butterknife.InjectView;",
+        "import butterknife.OnClick;",
+        "public class Test extends Activity {",
+        "  @OnClick(1) void doStuff() {}",
+        "}",
+        "class TestMiddle extends Test {",
+        "}",
+        "class TestOne extends TestMiddle {",
+        "  @InjectView(1) View thing;",
+        "}"
+    ));
+
+    JavaFileObject expectedSource = JavaFileObjects.forSourceString("test/TestOne$$ViewInjector",
+        Joiner.on('\n').join(
+            "package test;",
+            "import android.view.View;",
+            "import butterknife.ButterKnife.Finder;",
+            "public class TestOne$$ViewInjector {",
+            "  public static void inject(Finder finder, final test.TestOne target, Object source) {",
+            "    test.Test$$ViewInjector.inject(finder, target, source);",
+            "    View view;",
+            "    view = finder.findRequiredView(source, 1, \"field 'thing'\");",
+            "    target.thing = view;",
+            "  }",
+            "  public static void reset(test.TestOne target) {",
+            "    test.Test$$ViewInjector.reset(target);",
+            "    target.thing = null;",
+            "  }",
+            "}"
+        ));
+
+    ASSERT.about(javaSource()).that(source)
+        .processedWith(butterknifeProcessors())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expectedSource);
+  }
+
   @Test public void failsInJavaPackage() {
     JavaFileObject source = JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
         "package java.test;",
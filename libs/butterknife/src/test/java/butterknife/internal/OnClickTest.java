@@ -88,6 +88,7 @@ public class OnClickTest {
             "      });",
             "  }",
             "  public static void reset(test.Test target) {",
+            "  }",
             "}"));
 
     ASSERT.about(javaSource()).that(source)
@@ -236,22 +237,54 @@ public class OnClickTest {
             "public class Test$$ViewInjector {",
             "  public static void inject(Finder finder, final test.Test target, Object source) {",
             "    View view;",
+            "    final butterknife.internal.DebouncingOnClickListener listener0 =",
+            "      new butterknife.internal.DebouncingOnClickListener() {",
+            "        @Override public void doClick(android.view.View p0) {",
+            "          target.click();",
+            "        }",
+            "      };",
             "    view = finder.findRequiredView(source, 1, \"method 'click'\");",
-            "    view.setOnClickListener(new butterknife.internal.DebouncingOnClickListener() {",
-            "      @Override public void doClick(android.view.View p0) {",
-            "        target.click();",
-            "      }",
-            "    });",
+            "    view.setOnClickListener(listener0);",
             "    view = finder.findRequiredView(source, 2, \"method 'click'\");",
-            "    view.setOnClickListener(new butterknife.internal.DebouncingOnClickListener() {",
-            "      @Override public void doClick(android.view.View p0) {",
-            "        target.click();",
-            "      }",
-            "    });",
+            "    view.setOnClickListener(listener0);",
             "    view = finder.findRequiredView(source, 3, \"method 'click'\");",
-            "    view.setOnClickListener(new butterknife.internal.DebouncingOnClickListener() {",
+            "    view.setOnClickListener(listener0);",
+            "  }",
+            "  public static void reset(test.Test target) {",
+            "  }",
+            "}"
+        ));
+
+    ASSERT.about(javaSource()).that(source)
+        .processedWith(butterknifeProcessors())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expectedSource);
+  }
+
+  @Test public void debounceWindow() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+        "package test;",
+        "import android.app.Activity;",
+        "import butterknife.OnClick;",
+        "public class Test extends Activity {",
+        "  @OnClick(value = 1, debounce = 500) void doStuff() {}",
+        "  @OnClick(value = 1, debounce = 0) void doOtherStuff() {}",
+        "}"));
+
+    JavaFileObject expectedSource = JavaFileObjects.forSourceString("test/Test$$ViewInjector",
+        Joiner.on('\n').join(
+            "package test;",
+            "import android.view.View;",
+            "import butterknife.ButterKnife.Finder;",
+            "public class Test$$ViewInjector {",
+            "  public static void inject(Finder finder, final test.Test target, Object source) {",
+            "    View view;",
+            "    view = finder.findRequiredView(source, 1, \"method 'doStuff' and method 'doOtherStuff'\");",
+            "    view.setOnClickListener(new butterknife.internal.DebouncingOnClickListener(500) {",
             "      @Override public void doClick(android.view.View p0) {",
-            "        target.click();",
+            "        target.doStuff();",
+            "        target.doOtherStuff();",
             "      }",
             "    });",
             "  }",
@@ -519,4 +552,22 @@ public class OnClickTest {
             "@OnClick annotation for method contains duplicate ID 1. (test.Test.doStuff)")
         .in(source).onLine(6);
   }
+
+  @Test public void failsIfNegativeDebounce() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", Joiner.on('\n').join(
+        "package test;",
+        "import android.app.Activity;",
+        "import butterknife.OnClick;",
+        "public class Test extends Activity {",
+        "  @OnClick(value = 1, debounce = -1)",
+        "  void doStuff() {",
+        "  }",
+        "}"));
+
+    ASSERT.about(javaSource()).that(source)
+        .processedWith(butterknifeProcessors())
+        .failsToCompile()
+        .withErrorContaining("@OnClick debounce must not be negative. (test.Test.doStuff)")
+        .in(source).onLine(6);
+  }
 }
@@ -0,0 +1,242 @@
+package butterknife.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Test;
+
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Runs {@link ButterKnifeProcessor} over synthetic sources through {@code javax.tools} and reports
+ * processing time, generated source size, and allocation. The unit test only runs a small sample to
+ * keep the harness working. Run {@link #main(String[])} with {@code classes} and
+ * {@code bindingsPerClass} arguments for real measurements.
+ */
+public class ProcessorBenchmarkTest {
+  @Test public void smallSampleGeneratesEveryInjector() {
+    Result result = run(20, 10);
+    assertThat(result.errors).isEmpty();
+    assertThat(result.generatedFiles).isEqualTo(20);
+    assertThat(result.generatedBytes).isGreaterThan(0);
+  }
+
+  public static void main(String... args) {
+    int classes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int bindingsPerClass = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    // Warm up the compiler and the processor before measuring.
+    for (int i = 0; i < 3; i++) {
+      run(classes, bindingsPerClass);
+    }
+    for (int i = 0; i < iterations; i++) {
+      Result result = run(classes, bindingsPerClass);
+      if (!result.errors.isEmpty()) {
+        throw new AssertionError(result.errors);
+      }
+      System.out.println(String.format(Locale.US,
+          "classes=%d bindings=%d process=%.2fms total=%.2fms files=%d bytes=%d allocated=%dKiB",
+          classes, classes * bindingsPerClass, result.processNanos / 1e6,
+          result.totalNanos / 1e6, result.generatedFiles, result.generatedBytes,
+          result.processAllocatedBytes / 1024));
+    }
+  }
+
+  static Result run(int classes, int bindingsPerClass) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+    StandardJavaFileManager standardFileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.US, null);
+    CapturingFileManager fileManager = new CapturingFileManager(standardFileManager);
+    TimingProcessor processor = new TimingProcessor(new ButterKnifeProcessor());
+
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+        Arrays.asList("-proc:only"), null, generateSources(classes, bindingsPerClass));
+    task.setProcessors(Arrays.asList(processor));
+
+    long start = System.nanoTime();
+    task.call();
+    long totalNanos = System.nanoTime() - start;
+
+    List<String> errors = new ArrayList<String>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == ERROR) {
+        errors.add(diagnostic.getMessage(Locale.US));
+      }
+    }
+
+    long generatedBytes = 0;
+    for (ByteArrayOutputStream output : fileManager.outputs) {
+      generatedBytes += output.size();
+    }
+    return new Result(processor.nanos, totalNanos, processor.allocatedBytes,
+        fileManager.outputs.size(), generatedBytes, errors);
+  }
+
+  /**
+   * Creates {@code classes} targets with {@code bindingsPerClass} bindings each, split between
+   * views, view lists and click listeners. Every other class extends the previous one so that
+   * parent injector lookup is exercised.
+   */
+  static List<JavaFileObject> generateSources(int classes, int bindingsPerClass) {
+    List<JavaFileObject> sources = new ArrayList<JavaFileObject>(classes);
+    for (int c = 0; c < classes; c++) {
+      StringBuilder builder = new StringBuilder();
+      builder.append("package test;\n")
+          .append("import android.view.View;\n")
+          .append("import android.widget.TextView;\n")
+          .append("import butterknife.InjectView;\n")
+          .append("import butterknife.InjectViews;\n")
+          .append("import butterknife.OnClick;\n")
+          .append("import java.util.List;\n")
+          .append("public class Target").append(c).append(" extends ")
+          .append(c % 2 == 1 ? "Target" + (c - 1) : "android.app.Activity")
+          .append(" {\n");
+      for (int b = 0; b < bindingsPerClass; b++) {
+        int id = c * bindingsPerClass + b + 1;
+        switch (b % 3) {
+          case 0:
+            builder.append("  @InjectView(").append(id).append(") TextView view").append(b);
+            builder.append(";\n");
+            break;
+          case 1:
+            builder.append("  @InjectViews({ ").append(id).append(", ").append(id - 1);
+            builder.append(" }) List<View> views").append(b).append(";\n");
+            break;
+          default:
+            builder.append("  @OnClick(").append(id).append(") void click").append(b);
+            builder.append("(TextView view) {}\n");
+            break;
+        }
+      }
+      builder.append("}\n");
+      sources.add(new SourceFile("test/Target" + c, builder.toString()));
+    }
+    return sources;
+  }
+
+  static final class Result {
+    final long processNanos;
+    final long totalNanos;
+    final long processAllocatedBytes;
+    final int generatedFiles;
+    final long generatedBytes;
+    final List<String> errors;
+
+    Result(long processNanos, long totalNanos, long processAllocatedBytes, int generatedFiles,
+        long generatedBytes, List<String> errors) {
+      this.processNanos = processNanos;
+      this.totalNanos = totalNanos;
+      this.processAllocatedBytes = processAllocatedBytes;
+      this.generatedFiles = generatedFiles;
+      this.generatedBytes = generatedBytes;
+      this.errors = errors;
+    }
+  }
+
+  /** Delegates to a processor while accumulating time and allocation spent inside of it. */
+  static final class TimingProcessor extends AbstractProcessor {
+    private final Processor delegate;
+    long nanos;
+    long allocatedBytes;
+
+    TimingProcessor(Processor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override public synchronized void init(ProcessingEnvironment env) {
+      super.init(env);
+      delegate.init(env);
+    }
+
+    @Override public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override public boolean process(Set<? extends TypeElement> elements, RoundEnvironment env) {
+      long allocatedBefore = currentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      boolean result = delegate.process(elements, env);
+      nanos += System.nanoTime() - start;
+      allocatedBytes += currentThreadAllocatedBytes() - allocatedBefore;
+      return result;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+            Thread.currentThread().getId());
+      }
+      return 0;
+    }
+  }
+
+  static final class SourceFile extends SimpleJavaFileObject {
+    private final String source;
+
+    SourceFile(String path, String source) {
+      super(URI.create("string:///" + path + Kind.SOURCE.extension), Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+
+  /** Keeps generated sources in memory so that disk I/O does not skew the measurements. */
+  static final class CapturingFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+    final List<ByteArrayOutputStream> outputs = new ArrayList<ByteArrayOutputStream>();
+
+    CapturingFileManager(JavaFileManager fileManager) {
+      super(fileManager);
+    }
+
+    @Override public JavaFileObject getJavaFileForOutput(Location location, String className,
+        JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      outputs.add(output);
+      return new SimpleJavaFileObject(
+          URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+        @Override public OutputStream openOutputStream() {
+          return output;
+        }
+
+        @Override public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+          return output.toString();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright (C) 2014 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v7.widget;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the list shown by a {@link RecyclerView.Adapter} and replaces it with new lists,
+ * telling the adapter which items were inserted, removed and changed rather than calling
+ * {@link RecyclerView.Adapter#notifyDataSetChanged()}. Holders of unchanged items are kept,
+ * and the item animator can animate the changes.
+ *
+ * <p>The difference between two lists is computed with Myers' algorithm on a background
+ * executor by {@link #submitList(List)}; the new list is set and the adapter notified on the
+ * main thread once it is done. The adapter must read its items from {@link #getList()}:</p>
+ *
+ * <pre>
+ * public int getItemCount() {
+ *     return mDiffer.getList().size();
+ * }
+ * </pre>
+ *
+ * <p>Lists passed to the differ must not be modified afterwards. The difference can also be
+ * computed directly with {@link #calculateDiff(List, List, ItemCallback)}.</p>
+ *
+ * @param <T> Type of the list items
+ */
+public class ListDiffer<T> {
+
+    /**
+     * Compares items of the old and the new list while their difference is computed. Called on
+     * the background executor.
+     *
+     * @param <T> Type of the list items
+     */
+    public static abstract class ItemCallback<T> {
+        /**
+         * Returns whether two items represent the same object, such as two records with the
+         * same ID. Only the same items are kept in place; others are removed and inserted.
+         */
+        public abstract boolean areItemsTheSame(T oldItem, T newItem);
+
+        /**
+         * Returns whether the same item has the same contents in the old and the new list.
+         * Items with different contents are reported as changed so that they are rebound.
+         * Called only for items for which {@link #areItemsTheSame(Object, Object)} is true.
+         */
+        public abstract boolean areContentsTheSame(T oldItem, T newItem);
+    }
+
+    // Daemon threads at background priority, so that diffing neither keeps the process alive
+    // nor competes with the main thread
+    private static final ThreadFactory sThreadFactory = new ThreadFactory() {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "ListDiffer #" + mCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private static final Object sExecutorLock = new Object();
+    private static ExecutorService sDiffExecutor;
+
+    private final RecyclerView.Adapter<?> mAdapter;
+    private final ItemCallback<T> mCallback;
+    private final Executor mBackgroundExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private List<T> mList = Collections.emptyList();
+
+    // Incremented with every submitted list; results of older lists are dropped
+    private int mMaxScheduledGeneration;
+
+    /**
+     * Creates a differ which computes differences on a shared pool of background threads.
+     *
+     * @param adapter Adapter to notify of changes
+     * @param callback Callback comparing the items
+     */
+    public ListDiffer(RecyclerView.Adapter<?> adapter, ItemCallback<T> callback) {
+        this(adapter, callback, getDefaultExecutor());
+    }
+
+    /**
+     * Creates a differ.
+     *
+     * @param adapter Adapter to notify of changes
+     * @param callback Callback comparing the items
+     * @param backgroundExecutor Executor on which differences are computed
+     */
+    public ListDiffer(RecyclerView.Adapter<?> adapter, ItemCallback<T> callback,
+            Executor backgroundExecutor) {
+        mAdapter = adapter;
+        mCallback = callback;
+        mBackgroundExecutor = backgroundExecutor;
+    }
+
+    private static Executor getDefaultExecutor() {
+        synchronized (sExecutorLock) {
+            if (sDiffExecutor == null) {
+                sDiffExecutor = Executors.newFixedThreadPool(2, sThreadFactory);
+            }
+            return sDiffExecutor;
+        }
+    }
+
+    /**
+     * Returns the list shown by the adapter. This is the last submitted list once its
+     * difference has been dispatched to the adapter.
+     */
+    public List<T> getList() {
+        return mList;
+    }
+
+    /**
+     * Replaces the list shown by the adapter. If either list is empty the adapter is notified
+     * right away; otherwise the difference is computed on the background executor, and the
+     * list is set and the adapter notified on the main thread. A list submitted before the
+     * difference for an earlier one is dispatched replaces that one.
+     *
+     * <p>Must be called on the main thread.</p>
+     *
+     * @param newList The new list, or null for an empty list
+     */
+    public void submitList(final List<T> newList) {
+        final int generation = ++mMaxScheduledGeneration;
+        if (newList == mList) {
+            return;
+        }
+        final List<T> oldList = mList;
+        if (newList == null || newList.isEmpty()) {
+            final int removedCount = oldList.size();
+            mList = Collections.emptyList();
+            if (removedCount > 0) {
+                mAdapter.notifyItemRangeRemoved(0, removedCount);
+            }
+            return;
+        }
+        if (oldList.isEmpty()) {
+            mList = newList;
+            mAdapter.notifyItemRangeInserted(0, newList.size());
+            return;
+        }
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffResult result = calculateDiff(oldList, newList, mCallback);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mMaxScheduledGeneration) {
+                            mList = newList;
+                            result.dispatchUpdatesTo(mAdapter);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Computes the shortest sequence of removals and insertions which turns the old list into
+     * the new one, and the items kept whose contents changed. Takes O((N + M) D) time for lists
+     * of sizes N and M which differ by D items, and O(N + M) space.
+     *
+     * @param oldList The old list
+     * @param newList The new list
+     * @param callback Callback comparing the items
+     * @return The difference, to be dispatched to an adapter showing the old list
+     */
+    public static <T> DiffResult calculateDiff(List<T> oldList, List<T> newList,
+            ItemCallback<T> callback) {
+        final Differ<T> differ = new Differ<T>(oldList, newList, callback);
+        differ.addSnake(0, 0, 0);
+        differ.diff(0, oldList.size(), 0, newList.size());
+        differ.addSnake(oldList.size(), newList.size(), 0);
+        return differ.buildResult();
+    }
+
+    /**
+     * The difference between two lists, as computed by
+     * {@link ListDiffer#calculateDiff(List, List, ItemCallback)}.
+     */
+    public static class DiffResult {
+        private static final int REMOVE = 0;
+        private static final int INSERT = 1;
+        private static final int CHANGE = 2;
+
+        // Triples of command, position and item count, in the order they are dispatched
+        private final int[] mOps;
+        private final int mOpCount;
+
+        DiffResult(int[] ops, int opCount) {
+            mOps = ops;
+            mOpCount = opCount;
+        }
+
+        /**
+         * Notifies an adapter showing the old list of the changes which turn it into the new
+         * list. The adapter must show the new list from this call on.
+         */
+        public void dispatchUpdatesTo(final RecyclerView.Adapter<?> adapter) {
+            dispatchUpdatesTo(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount) {
+                    adapter.notifyItemRangeChanged(positionStart, itemCount);
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    adapter.notifyItemRangeInserted(positionStart, itemCount);
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    adapter.notifyItemRangeRemoved(positionStart, itemCount);
+                }
+            });
+        }
+
+        /**
+         * Calls the observer for each change, in the order in which they are dispatched to an
+         * adapter.
+         */
+        void dispatchUpdatesTo(RecyclerView.AdapterDataObserver observer) {
+            final int[] ops = mOps;
+            for (int i = 0; i < mOpCount; i += 3) {
+                final int positionStart = ops[i + 1];
+                final int itemCount = ops[i + 2];
+                switch (ops[i]) {
+                    case REMOVE:
+                        observer.onItemRangeRemoved(positionStart, itemCount);
+                        break;
+                    case INSERT:
+                        observer.onItemRangeInserted(positionStart, itemCount);
+                        break;
+                    case CHANGE:
+                        observer.onItemRangeChanged(positionStart, itemCount);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the snakes, the runs of the same items, of a shortest edit script with the linear
+     * space variant of Myers' algorithm: the middle snake of the script is found by searching
+     * from both corners of the edit graph at once, and the parts before and after it are
+     * diffed recursively.
+     */
+    private static class Differ<T> {
+        private final List<T> mOldList;
+        private final List<T> mNewList;
+        private final ItemCallback<T> mCallback;
+
+        // Furthest reaching x of the forward search by diagonal k = x - y, and of the
+        // backward search by k - delta, shifted by mOffset
+        private final int[] mForward;
+        private final int[] mBackward;
+        private final int mOffset;
+
+        // Snakes in order, as triples of old position, new position and length
+        private int[] mSnakes = new int[3 * 16];
+        private int mSnakeCount;
+
+        // The middle snake found by findMiddleSnake()
+        private int mSnakeX;
+        private int mSnakeY;
+        private int mSnakeEndX;
+        private int mSnakeEndY;
+
+        Differ(List<T> oldList, List<T> newList, ItemCallback<T> callback) {
+            mOldList = oldList;
+            mNewList = newList;
+            mCallback = callback;
+            final int max = (oldList.size() + newList.size() + 1) / 2 + 1;
+            mForward = new int[2 * max + 1];
+            mBackward = new int[2 * max + 1];
+            mOffset = max;
+        }
+
+        private boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return mCallback.areItemsTheSame(mOldList.get(oldPosition),
+                    mNewList.get(newPosition));
+        }
+
+        void diff(int oldStart, int oldEnd, int newStart, int newEnd) {
+            // Common prefixes and suffixes are snakes of their own. Without them, the middle
+            // snake of a box with a single edit can be at its corner, leaving the whole box to
+            // be diffed again.
+            int start = oldStart;
+            int newPosition = newStart;
+            while (start < oldEnd && newPosition < newEnd
+                    && areItemsTheSame(start, newPosition)) {
+                start++;
+                newPosition++;
+            }
+            if (start > oldStart) {
+                addSnake(oldStart, newStart, start - oldStart);
+            }
+            oldStart = start;
+            newStart = newPosition;
+            int end = oldEnd;
+            int newPositionEnd = newEnd;
+            while (end > oldStart && newPositionEnd > newStart
+                    && areItemsTheSame(end - 1, newPositionEnd - 1)) {
+                end--;
+                newPositionEnd--;
+            }
+
+            if (oldStart < end && newStart < newPositionEnd) {
+                findMiddleSnake(oldStart, end, newStart, newPositionEnd);
+                final int x = mSnakeX;
+                final int y = mSnakeY;
+                final int endX = mSnakeEndX;
+                final int endY = mSnakeEndY;
+                diff(oldStart, x, newStart, y);
+                if (endX > x) {
+                    addSnake(x, y, endX - x);
+                }
+                diff(endX, end, endY, newPositionEnd);
+            }
+
+            if (end < oldEnd) {
+                addSnake(end, newPositionEnd, oldEnd - end);
+            }
+        }
+
+        private void findMiddleSnake(int oldStart, int oldEnd, int newStart, int newEnd) {
+            final int[] forward = mForward;
+            final int[] backward = mBackward;
+            final int offset = mOffset;
+            final int oldSize = oldEnd - oldStart;
+            final int newSize = newEnd - newStart;
+            final int delta = oldSize - newSize;
+            final boolean oddDelta = (delta & 1) != 0;
+            final int maxD = (oldSize + newSize + 1) / 2;
+
+            forward[offset + 1] = 0;
+            backward[offset + 1] = oldSize + 1;
+            for (int d = 0; d <= maxD; d++) {
+                for (int k = -d; k <= d; k += 2) {
+                    // Move down from diagonal k + 1 (an insertion) or right from k - 1
+                    // (a removal), whichever reaches further
+                    int x;
+                    if (k == -d
+                            || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                        x = forward[offset + k + 1];
+                    } else {
+                        x = forward[offset + k - 1] + 1;
+                    }
+                    int y = x - k;
+                    final int startX = x;
+                    final int startY = y;
+                    while (x < oldSize && y < newSize
+                            && areItemsTheSame(oldStart + x, newStart + y)) {
+                        x++;
+                        y++;
+                    }
+                    forward[offset + k] = x;
+                    if (oddDelta && k >= delta - d + 1 && k <= delta + d - 1
+                            && backward[offset + k - delta] <= x) {
+                        setMiddleSnake(oldStart + startX, newStart + startY, oldStart + x,
+                                newStart + y);
+                        return;
+                    }
+                }
+                for (int c = -d; c <= d; c += 2) {
+                    // Same as above from the end: move left from diagonal k + 1 or up from
+                    // k - 1, whichever reaches further back
+                    final int k = delta + c;
+                    int x;
+                    if (c == -d || (c != d
+                            && backward[offset + c + 1] - 1 < backward[offset + c - 1])) {
+                        x = backward[offset + c + 1] - 1;
+                    } else {
+                        x = backward[offset + c - 1];
+                    }
+                    int y = x - k;
+                    final int endX = x;
+                    final int endY = y;
+                    while (x > 0 && y > 0
+                            && areItemsTheSame(oldStart + x - 1, newStart + y - 1)) {
+                        x--;
+                        y--;
+                    }
+                    backward[offset + c] = x;
+                    if (!oddDelta && k >= -d && k <= d && forward[offset + k] >= x) {
+                        setMiddleSnake(oldStart + x, newStart + y, oldStart + endX,
+                                newStart + endY);
+                        return;
+                    }
+                }
+            }
+            throw new IllegalStateException("No middle snake found; the item callback may be "
+                    + "inconsistent");
+        }
+
+        private void setMiddleSnake(int x, int y, int endX, int endY) {
+            mSnakeX = x;
+            mSnakeY = y;
+            mSnakeEndX = endX;
+            mSnakeEndY = endY;
+        }
+
+        void addSnake(int x, int y, int length) {
+            if (mSnakeCount + 3 > mSnakes.length) {
+                final int[] snakes = new int[mSnakes.length * 2];
+                System.arraycopy(mSnakes, 0, snakes, 0, mSnakeCount);
+                mSnakes = snakes;
+            }
+            mSnakes[mSnakeCount++] = x;
+            mSnakes[mSnakeCount++] = y;
+            mSnakes[mSnakeCount++] = length;
+        }
+
+        /**
+         * Turns the snakes into adapter updates. The updates are made from the end of the
+         * lists backwards, so that the items before each update are still at their old
+         * positions and every update is in old positions.
+         */
+        DiffResult buildResult() {
+            final int[] snakes = mSnakes;
+            int[] ops = new int[3 * 16];
+            int opCount = 0;
+            int nextX = mOldList.size();
+            int nextY = mNewList.size();
+            for (int i = mSnakeCount - 3; i >= 0; i -= 3) {
+                final int x = snakes[i];
+                final int y = snakes[i + 1];
+                final int length = snakes[i + 2];
+                final int endX = x + length;
+                final int endY = y + length;
+                final int needed = opCount + 3 * (length + 2);
+                if (ops.length < needed) {
+                    final int[] grown = new int[Math.max(ops.length * 2, needed)];
+                    System.arraycopy(ops, 0, grown, 0, opCount);
+                    ops = grown;
+                }
+                if (nextX > endX) {
+                    opCount = addOp(ops, opCount, DiffResult.REMOVE, endX, nextX - endX);
+                }
+                if (nextY > endY) {
+                    opCount = addOp(ops, opCount, DiffResult.INSERT, endX, nextY - endY);
+                }
+                for (int j = length - 1; j >= 0; j--) {
+                    if (!mCallback.areContentsTheSame(mOldList.get(x + j),
+                            mNewList.get(y + j))) {
+                        opCount = addOp(ops, opCount, DiffResult.CHANGE, x + j, 1);
+                    }
+                }
+                nextX = x;
+                nextY = y;
+            }
+            return new DiffResult(ops, opCount);
+        }
+
+        /** Adds an op, extending the previous one if it is a change just after it. */
+        private static int addOp(int[] ops, int opCount, int cmd, int positionStart,
+                int itemCount) {
+            if (cmd == DiffResult.CHANGE && opCount > 0 && ops[opCount - 3] == cmd
+                    && ops[opCount - 2] == positionStart + itemCount) {
+                ops[opCount - 2] = positionStart;
+                ops[opCount - 1] += itemCount;
+                return opCount;
+            }
+            ops[opCount] = cmd;
+            ops[opCount + 1] = positionStart;
+            ops[opCount + 2] = itemCount;
+            return opCount + 3;
+        }
+    }
+}
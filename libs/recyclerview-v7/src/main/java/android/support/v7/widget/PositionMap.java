@@ -18,9 +18,16 @@
 package android.support.v7.widget;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Like a SparseArray, but with the ability to offset key ranges for bulk insertions/deletions.
+ *
+ * <p>Offsetting a key range does not touch the keys after it. The offset is recorded in a
+ * Fenwick tree over the indices instead, so {@link #insertKeyRange} and
+ * {@link #removeKeyRange} take O(log n) plus the removed mappings, and reading a key adds up
+ * its pending offsets in O(log n). Pending offsets are folded into the keys by the operations
+ * which move mappings between indices, which are O(n) anyway.</p>
  */
 class PositionMap<E> implements Cloneable {
     private static final Object DELETED = new Object();
@@ -30,6 +37,12 @@ class PositionMap<E> implements Cloneable {
     private Object[] mValues;
     private int mSize;
 
+    // Fenwick tree of pending key offsets, one slot per index of mKeys plus one. The key at
+    // index i is mKeys[i] plus the sum of the offsets added at indices up to i. Allocated by
+    // the first range offset.
+    private int[] mOffsets;
+    private boolean mHasOffsets;
+
     /**
      * Creates a new SparseArray containing no mappings.
      */
@@ -64,6 +77,9 @@ class PositionMap<E> implements Cloneable {
             clone = (PositionMap<E>) super.clone();
             clone.mKeys = mKeys.clone();
             clone.mValues = mValues.clone();
+            if (mOffsets != null) {
+                clone.mOffsets = mOffsets.clone();
+            }
         } catch (CloneNotSupportedException cnse) {
             /* ignore */
         }
@@ -84,7 +100,7 @@ class PositionMap<E> implements Cloneable {
      */
     @SuppressWarnings("unchecked")
     public E get(int key, E valueIfKeyNotFound) {
-        int i = ContainerHelpers.binarySearch(mKeys, mSize, key);
+        int i = search(key);
 
         if (i < 0 || mValues[i] == DELETED) {
             return valueIfKeyNotFound;
@@ -97,7 +113,7 @@ class PositionMap<E> implements Cloneable {
      * Removes the mapping from the specified key, if there was any.
      */
     public void delete(int key) {
-        int i = ContainerHelpers.binarySearch(mKeys, mSize, key);
+        int i = search(key);
 
         if (i >= 0) {
             if (mValues[i] != DELETED) {
@@ -137,17 +153,48 @@ class PositionMap<E> implements Cloneable {
         }
     }
 
+    /**
+     * Adds <code>count</code> to every key greater than or equal to <code>keyStart</code>,
+     * making room for <code>count</code> keys starting at <code>keyStart</code>.
+     */
     public void insertKeyRange(int keyStart, int count) {
-
+        addOffset(lowerBound(keyStart), count);
     }
 
+    /**
+     * Removes the mappings with keys in the range <code>keyStart...keyStart+count-1</code> and
+     * subtracts <code>count</code> from every key after the range.
+     *
+     * @param removedItems If not null, receives the values of the removed mappings in key
+     *                     order.
+     * @param keyStart First key of the range to remove
+     * @param count Number of keys in the range
+     */
+    @SuppressWarnings("unchecked")
     public void removeKeyRange(ArrayList<E> removedItems, int keyStart, int count) {
-
+        final int start = lowerBound(keyStart);
+        final int end = lowerBound(keyStart + count);
+        for (int i = start; i < end; i++) {
+            if (mValues[i] != DELETED) {
+                if (removedItems != null) {
+                    removedItems.add((E) mValues[i]);
+                }
+                mValues[i] = DELETED;
+                mGarbage = true;
+            }
+            // Removed mappings stay at their index until gc(). Moving their keys to the start
+            // of the range keeps the keys sorted once the keys after the range are offset; a
+            // deleted key equal to a live one sorts before it, see search().
+            mKeys[i] = keyStart - (mHasOffsets ? offsetAt(i) : 0);
+        }
+        addOffset(end, -count);
     }
 
     private void gc() {
         // Log.e("SparseArray", "gc start with " + mSize);
 
+        flushOffsets();
+
         int n = mSize;
         int o = 0;
         int[] keys = mKeys;
@@ -179,6 +226,14 @@ class PositionMap<E> implements Cloneable {
      * was one.
      */
     public void put(int key, E value) {
+        // Inserting moves mappings between indices, and a removed key range may have left
+        // deleted keys equal to live ones, so start from plain sorted keys.
+        if (mGarbage) {
+            gc();
+        } else {
+            flushOffsets();
+        }
+
         int i = ContainerHelpers.binarySearch(mKeys, mSize, key);
 
         if (i >= 0) {
@@ -186,19 +241,6 @@ class PositionMap<E> implements Cloneable {
         } else {
             i = ~i;
 
-            if (i < mSize && mValues[i] == DELETED) {
-                mKeys[i] = key;
-                mValues[i] = value;
-                return;
-            }
-
-            if (mGarbage && mSize >= mKeys.length) {
-                gc();
-
-                // Search again because indices may have changed.
-                i = ~ContainerHelpers.binarySearch(mKeys, mSize, key);
-            }
-
             if (mSize >= mKeys.length) {
                 int n = idealIntArraySize(mSize + 1);
 
@@ -247,7 +289,7 @@ class PositionMap<E> implements Cloneable {
             gc();
         }
 
-        return mKeys[index];
+        return keyAtIndex(index);
     }
 
     /**
@@ -287,7 +329,7 @@ class PositionMap<E> implements Cloneable {
             gc();
         }
 
-        return ContainerHelpers.binarySearch(mKeys, mSize, key);
+        return search(key);
     }
 
     /**
@@ -325,6 +367,10 @@ class PositionMap<E> implements Cloneable {
 
         mSize = 0;
         mGarbage = false;
+        if (mHasOffsets) {
+            Arrays.fill(mOffsets, 0);
+            mHasOffsets = false;
+        }
     }
 
     /**
@@ -332,7 +378,7 @@ class PositionMap<E> implements Cloneable {
      * the key is greater than all existing keys in the array.
      */
     public void append(int key, E value) {
-        if (mSize != 0 && key <= mKeys[mSize - 1]) {
+        if (mSize != 0 && key <= keyAtIndex(mSize - 1)) {
             put(key, value);
             return;
         }
@@ -343,6 +389,7 @@ class PositionMap<E> implements Cloneable {
 
         int pos = mSize;
         if (pos >= mKeys.length) {
+            flushOffsets();
             int n = idealIntArraySize(pos + 1);
 
             int[] nkeys = new int[n];
@@ -356,11 +403,97 @@ class PositionMap<E> implements Cloneable {
             mValues = nvalues;
         }
 
-        mKeys[pos] = key;
+        mKeys[pos] = mHasOffsets ? key - offsetAt(pos) : key;
         mValues[pos] = value;
         mSize = pos + 1;
     }
 
+    /**
+     * Returns the index of the specified key like {@link ContainerHelpers#binarySearch}, taking
+     * pending offsets into account. Deleted mappings sort before a live one with the same key.
+     */
+    private int search(int key) {
+        int lo = 0;
+        int hi = mSize - 1;
+
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int midKey = keyAtIndex(mid);
+
+            if (midKey < key || (midKey == key && mValues[mid] == DELETED)) {
+                lo = mid + 1;
+            } else if (midKey > key) {
+                hi = mid - 1;
+            } else {
+                return mid;  // key found
+            }
+        }
+        return ~lo;  // key not present
+    }
+
+    /**
+     * Returns the index of the first mapping, deleted or not, whose key is greater than or
+     * equal to the specified key, or the size if there is none.
+     */
+    private int lowerBound(int key) {
+        int lo = 0;
+        int hi = mSize;
+
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (keyAtIndex(mid) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int keyAtIndex(int index) {
+        return mHasOffsets ? mKeys[index] + offsetAt(index) : mKeys[index];
+    }
+
+    private int offsetAt(int index) {
+        int offset = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            offset += mOffsets[i];
+        }
+        return offset;
+    }
+
+    /**
+     * Adds the specified offset to the keys at the specified index and after it.
+     */
+    private void addOffset(int index, int offset) {
+        if (index >= mSize || offset == 0) {
+            return;
+        }
+        // mKeys only grows after flushOffsets(), so the tree is resized only when it is empty.
+        final int n = mKeys.length;
+        if (mOffsets == null || mOffsets.length != n + 1) {
+            mOffsets = new int[n + 1];
+        }
+        for (int i = index + 1; i <= n; i += i & -i) {
+            mOffsets[i] += offset;
+        }
+        mHasOffsets = true;
+    }
+
+    /**
+     * Folds the pending offsets into the keys.
+     */
+    private void flushOffsets() {
+        if (!mHasOffsets) {
+            return;
+        }
+        for (int i = 0; i < mSize; i++) {
+            mKeys[i] += offsetAt(i);
+        }
+        Arrays.fill(mOffsets, 0);
+        mHasOffsets = false;
+    }
+
     /**
      * {@inheritDoc}
      *
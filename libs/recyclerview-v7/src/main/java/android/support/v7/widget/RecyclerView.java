@@ -1886,6 +1886,20 @@ public class RecyclerView extends ViewGroup {
      * On older platform versions the RecyclerView requests a layout the same way ListView does.
      */
     void postAdapterUpdate(UpdateOp op) {
+        final int pendingCount = mPendingUpdates.size();
+        if (pendingCount > 0) {
+            // Bursts of notifications for neighbouring items collapse into a single op, so
+            // child views are updated once per burst rather than once per item.
+            final UpdateOp last = mPendingUpdates.get(pendingCount - 1);
+            if (last.coalesce(op)) {
+                recycleUpdateOp(op);
+                if (last.itemCount == 0) {
+                    mPendingUpdates.remove(pendingCount - 1);
+                    recycleUpdateOp(last);
+                }
+                return;
+            }
+        }
         mPendingUpdates.add(op);
         if (mPendingUpdates.size() == 1) {
             if (mPostUpdatesOnAnimation && mHasFixedSize && mIsAttached) {
@@ -4886,7 +4900,7 @@ public class RecyclerView extends ViewGroup {
     /**
      * Queued operation to happen when child views are updated.
      */
-    private static class UpdateOp {
+    static class UpdateOp {
         public static final int ADD = 0;
         public static final int REMOVE = 1;
         public static final int UPDATE = 2;
@@ -4902,6 +4916,53 @@ public class RecyclerView extends ViewGroup {
             this.positionStart = positionStart;
             this.itemCount = itemCount;
         }
+
+        /**
+         * Folds an op which directly follows this one into this op, if applying the two is
+         * the same as applying a single op. This is the case for inserts into or next to an
+         * inserted range, removals touching a removed range, overlapping or adjacent updates,
+         * and removals of items within an inserted range. The latter may leave this op with
+         * no items.
+         *
+         * @param next The op following this one, in positions after this op
+         * @return true if <code>next</code> was folded into this op
+         */
+        boolean coalesce(UpdateOp next) {
+            final int end = positionStart + itemCount;
+            final int nextEnd = next.positionStart + next.itemCount;
+            switch (cmd) {
+                case ADD:
+                    if (next.cmd == ADD) {
+                        if (next.positionStart >= positionStart && next.positionStart <= end) {
+                            itemCount += next.itemCount;
+                            return true;
+                        }
+                    } else if (next.cmd == REMOVE) {
+                        if (next.positionStart >= positionStart && nextEnd <= end) {
+                            itemCount -= next.itemCount;
+                            return true;
+                        }
+                    }
+                    return false;
+                case REMOVE:
+                    if (next.cmd == REMOVE && next.positionStart <= positionStart
+                            && nextEnd >= positionStart) {
+                        positionStart = next.positionStart;
+                        itemCount += next.itemCount;
+                        return true;
+                    }
+                    return false;
+                case UPDATE:
+                    if (next.cmd == UPDATE && next.positionStart <= end
+                            && nextEnd >= positionStart) {
+                        positionStart = Math.min(positionStart, next.positionStart);
+                        itemCount = Math.max(end, nextEnd) - positionStart;
+                        return true;
+                    }
+                    return false;
+            }
+            return false;
+        }
     }
 
     UpdateOp obtainUpdateOp(int cmd, int positionStart, int itemCount) {
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2014 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v7.widget;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ListDifferTest {
+    private static final int ITERATIONS = 20000;
+    private static final int MAX_SIZE = 30;
+    private static final int EDITS = 8;
+
+    private static final ListDiffer.ItemCallback<Item> CALLBACK =
+            new ListDiffer.ItemCallback<Item>() {
+                @Override
+                public boolean areItemsTheSame(Item oldItem, Item newItem) {
+                    return oldItem.id == newItem.id;
+                }
+
+                @Override
+                public boolean areContentsTheSame(Item oldItem, Item newItem) {
+                    return oldItem.contents == newItem.contents;
+                }
+            };
+
+    @Test
+    public void sameListsDispatchNothing() {
+        List<Item> items = items(1, 2, 3);
+        Replay replay = replay(items, items(1, 2, 3));
+        assertEquals(0, replay.mEdits);
+        assertEquals(0, replay.mChanges);
+    }
+
+    @Test
+    public void changedContentsAreReported() {
+        List<Item> newList = items(1, 2, 3, 4);
+        newList.get(1).contents = 1;
+        newList.get(2).contents = 1;
+        Replay replay = replay(items(1, 2, 3, 4), newList);
+        assertEquals(0, replay.mEdits);
+        assertEquals(2, replay.mChanges);
+        assertFalse(replay.mItems.get(0).changed);
+        assertTrue(replay.mItems.get(1).changed);
+        assertTrue(replay.mItems.get(2).changed);
+        assertFalse(replay.mItems.get(3).changed);
+    }
+
+    @Test
+    public void movedItemIsRemovedAndInserted() {
+        Replay replay = replay(items(1, 2, 3, 4), items(2, 3, 4, 1));
+        assertEquals(2, replay.mEdits);
+    }
+
+    /**
+     * Diffs random lists against random edits of them, replays the dispatched updates on the
+     * old list, and checks that this gives the new list with the fewest insertions and removals,
+     * and that exactly the kept items whose contents changed are reported as changed.
+     */
+    @Test
+    public void dispatchedUpdatesTurnOldListIntoNewList() {
+        Random random = new Random(7);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            List<Item> oldList = randomList(random);
+            List<Item> newList = randomEdit(random, oldList);
+            String message = "iteration " + iteration + " from " + oldList + " to " + newList;
+
+            Replay replay = replay(oldList, newList);
+            assertEquals(message, newList.size(), replay.mItems.size());
+            int changes = 0;
+            for (int i = 0; i < newList.size(); i++) {
+                Item item = replay.mItems.get(i);
+                if (item == null) {
+                    continue;
+                }
+                Item newItem = newList.get(i);
+                assertEquals(message, newItem.id, item.id);
+                assertEquals(message, item.contents != newItem.contents, item.changed);
+                if (item.changed) {
+                    changes++;
+                }
+            }
+            assertEquals(message, changes, replay.mChanges);
+            assertEquals(message, oldList.size() + newList.size()
+                    - 2 * longestCommonSubsequence(oldList, newList), replay.mEdits);
+        }
+    }
+
+    private static List<Item> randomList(Random random) {
+        List<Item> items = new ArrayList<Item>();
+        int size = random.nextInt(MAX_SIZE);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i, random.nextInt(2)));
+        }
+        return items;
+    }
+
+    /** Removes, inserts, moves and changes random items of a copy of the list. */
+    private static List<Item> randomEdit(Random random, List<Item> items) {
+        List<Item> edited = new ArrayList<Item>();
+        for (Item item : items) {
+            edited.add(new Item(item.id, item.contents));
+        }
+        int nextId = items.size();
+        int edits = random.nextInt(EDITS);
+        for (int i = 0; i < edits; i++) {
+            int size = edited.size();
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (size > 0) {
+                        edited.remove(random.nextInt(size));
+                    }
+                    break;
+                case 1:
+                    edited.add(random.nextInt(size + 1), new Item(nextId++, 0));
+                    break;
+                case 2:
+                    if (size > 0) {
+                        Item moved = edited.remove(random.nextInt(size));
+                        edited.add(random.nextInt(size), moved);
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        edited.get(random.nextInt(size)).contents ^= 1;
+                    }
+                    break;
+            }
+        }
+        if (random.nextInt(10) == 0) {
+            Collections.shuffle(edited, random);
+        }
+        return edited;
+    }
+
+    private static int longestCommonSubsequence(List<Item> oldList, List<Item> newList) {
+        int[][] lengths = new int[oldList.size() + 1][newList.size() + 1];
+        for (int i = oldList.size() - 1; i >= 0; i--) {
+            for (int j = newList.size() - 1; j >= 0; j--) {
+                if (oldList.get(i).id == newList.get(j).id) {
+                    lengths[i][j] = lengths[i + 1][j + 1] + 1;
+                } else {
+                    lengths[i][j] = Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+                }
+            }
+        }
+        return lengths[0][0];
+    }
+
+    private static List<Item> items(int... ids) {
+        List<Item> items = new ArrayList<Item>();
+        for (int id : ids) {
+            items.add(new Item(id, 0));
+        }
+        return items;
+    }
+
+    private static Replay replay(List<Item> oldList, List<Item> newList) {
+        Replay replay = new Replay(oldList);
+        ListDiffer.calculateDiff(oldList, newList, CALLBACK).dispatchUpdatesTo(replay);
+        return replay;
+    }
+
+    /**
+     * Applies dispatched updates to a copy of the old list, as an adapter would. Inserted items
+     * are null, and changed items are flagged.
+     */
+    private static class Replay extends RecyclerView.AdapterDataObserver {
+        final List<Item> mItems = new ArrayList<Item>();
+        int mEdits;
+        int mChanges;
+
+        Replay(List<Item> oldList) {
+            for (Item item : oldList) {
+                mItems.add(new Item(item.id, item.contents));
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            assertTrue(itemCount > 0);
+            mItems.addAll(positionStart, Arrays.asList(new Item[itemCount]));
+            mEdits += itemCount;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            assertTrue(itemCount > 0);
+            mItems.subList(positionStart, positionStart + itemCount).clear();
+            mEdits += itemCount;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            assertTrue(itemCount > 0);
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                Item item = mItems.get(i);
+                assertNotNull("inserted item changed", item);
+                assertFalse("item changed twice", item.changed);
+                item.changed = true;
+                mChanges++;
+            }
+        }
+    }
+
+    private static class Item {
+        final int id;
+        int contents;
+        boolean changed;
+
+        Item(int id, int contents) {
+            this.id = id;
+            this.contents = contents;
+        }
+
+        @Override
+        public String toString() {
+            return id + (contents == 0 ? "" : "'");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v7.widget;
+
+/**
+ * Compares offsetting view holder positions by walking every holder, as RecyclerView does,
+ * against offsetting the ranges of a {@link PositionMap}. Each round applies alternating
+ * insertions at the front and removals in the middle, then reads every position back.
+ *
+ * <p>This is not run as a test. Run its main method on a desktop JVM to print the average time
+ * of a round for several numbers of holders. The map only wins from about 100 holders, more than
+ * a RecyclerView usually has attached and cached, so RecyclerView keeps walking them.</p>
+ */
+public class PositionMapBenchmark {
+    private static final int[] HOLDER_COUNTS = { 20, 100, 1000 };
+    private static final int OPS_PER_ROUND = 64;
+    private static final int ROUNDS = 20000;
+    private static final int PASSES = 3;
+
+    /** Stands in for a view holder, reached through its layout params as in RecyclerView. */
+    private static final class Holder {
+        int position;
+    }
+
+    private static final class LayoutParams {
+        Holder holder;
+    }
+
+    private static int sSink;
+
+    public static void main(String[] args) {
+        for (int holders : HOLDER_COUNTS) {
+            LayoutParams[] children = new LayoutParams[holders];
+            for (int i = 0; i < holders; i++) {
+                children[i] = new LayoutParams();
+                children[i].holder = new Holder();
+            }
+            PositionMap<Object> map = new PositionMap<Object>();
+            Object value = new Object();
+
+            // Earlier passes warm up the JIT, only the last one is reported
+            for (int pass = 0; pass < PASSES; pass++) {
+                long start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    walk(children);
+                }
+                long walked = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    index(map, value, holders);
+                }
+                long indexed = System.nanoTime();
+                if (pass == PASSES - 1) {
+                    System.out.printf("holders=%d ops=%d walk=%.2fus index=%.2fus%n", holders,
+                            OPS_PER_ROUND, (walked - start) / (ROUNDS * 1000.0),
+                            (indexed - walked) / (ROUNDS * 1000.0));
+                }
+            }
+        }
+    }
+
+    private static void walk(LayoutParams[] children) {
+        final int holders = children.length;
+        for (int i = 0; i < holders; i++) {
+            children[i].holder.position = 1000 + i;
+        }
+        for (int op = 0; op < OPS_PER_ROUND; op++) {
+            final int positionStart = (op & 1) == 0 ? 0 : 5;
+            final int offset = (op & 1) == 0 ? 3 : -3;
+            for (int i = 0; i < holders; i++) {
+                Holder holder = children[i].holder;
+                if (holder.position >= positionStart) {
+                    holder.position += offset;
+                }
+            }
+        }
+        for (int i = 0; i < holders; i++) {
+            sSink += children[i].holder.position;
+        }
+    }
+
+    private static void index(PositionMap<Object> map, Object value, int holders) {
+        map.clear();
+        for (int i = 0; i < holders; i++) {
+            map.append(1000 + i, value);
+        }
+        for (int op = 0; op < OPS_PER_ROUND; op++) {
+            if ((op & 1) == 0) {
+                map.insertKeyRange(0, 3);
+            } else {
+                map.removeKeyRange(null, 5, 3);
+            }
+        }
+        for (int i = 0; i < holders; i++) {
+            sSink += map.keyAt(i);
+        }
+    }
+}
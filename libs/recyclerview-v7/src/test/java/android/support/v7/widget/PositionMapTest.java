@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v7.widget;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PositionMapTest {
+    private static final int ITERATIONS = 5000;
+    private static final int STEPS = 60;
+
+    @Test
+    public void insertKeyRangeShiftsKeysFromStart() {
+        PositionMap<String> map = new PositionMap<String>();
+        map.put(1, "a");
+        map.put(3, "b");
+        map.put(5, "c");
+        map.insertKeyRange(3, 2);
+
+        assertEquals("a", map.get(1));
+        assertNull(map.get(3));
+        assertEquals("b", map.get(5));
+        assertEquals("c", map.get(7));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void removeKeyRangeReturnsRemovedValuesInKeyOrder() {
+        PositionMap<String> map = new PositionMap<String>();
+        for (int i = 0; i < 6; i++) {
+            map.put(i, String.valueOf((char) ('a' + i)));
+        }
+        ArrayList<String> removed = new ArrayList<String>();
+        map.removeKeyRange(removed, 1, 3);
+
+        assertEquals(Arrays.asList("b", "c", "d"), removed);
+        assertEquals(3, map.size());
+        assertEquals("a", map.get(0));
+        assertEquals("e", map.get(1));
+        assertEquals("f", map.get(2));
+        assertNull(map.get(3));
+    }
+
+    @Test
+    public void putAfterRemoveKeyRangeReplacesShiftedMapping() {
+        PositionMap<String> map = new PositionMap<String>();
+        map.put(0, "a");
+        map.put(1, "b");
+        map.put(2, "c");
+        map.removeKeyRange(null, 1, 1);
+        // The removed mapping and "c" now share key 1 until the next gc()
+        assertEquals("c", map.get(1));
+        map.put(1, "d");
+
+        assertEquals(2, map.size());
+        assertEquals("a", map.get(0));
+        assertEquals("d", map.get(1));
+        assertNull(map.get(2));
+        assertEquals(1, map.indexOfKey(1));
+    }
+
+    /**
+     * Applies random operations to a map and to a {@link TreeMap} which shifts its keys by
+     * rebuilding, and checks after each one that both hold the same mappings.
+     */
+    @Test
+    public void randomOperationsMatchTreeMap() {
+        Random random = new Random(1);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            PositionMap<Integer> map = new PositionMap<Integer>(random.nextInt(3) == 0 ? 0 : 4);
+            TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+            for (int step = 0; step < STEPS; step++) {
+                String message = "iteration " + iteration + ", step " + step;
+                int key = random.nextInt(60) - 5;
+                int count = random.nextInt(6);
+                switch (random.nextInt(7)) {
+                    case 0:
+                    case 1:
+                        map.put(key, step);
+                        expected.put(key, step);
+                        break;
+                    case 2:
+                        int appendKey = expected.isEmpty()
+                                ? 0 : expected.lastKey() + 1 + random.nextInt(3);
+                        map.append(appendKey, step);
+                        expected.put(appendKey, step);
+                        break;
+                    case 3:
+                        map.delete(key);
+                        expected.remove(key);
+                        break;
+                    case 4:
+                        map.insertKeyRange(key, count);
+                        expected = offsetKeys(expected, key, count, null);
+                        break;
+                    case 5:
+                        ArrayList<Integer> removed = new ArrayList<Integer>();
+                        ArrayList<Integer> expectedRemoved = new ArrayList<Integer>();
+                        map.removeKeyRange(removed, key, count);
+                        expected = offsetKeys(expected, key, -count, expectedRemoved);
+                        assertEquals(message, expectedRemoved, removed);
+                        break;
+                    case 6:
+                        if (random.nextBoolean()) {
+                            map = map.clone();
+                        } else if (random.nextInt(10) == 0) {
+                            map.clear();
+                            expected.clear();
+                        }
+                        break;
+                }
+                assertSameMappings(message, expected, map);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the given mappings with <code>offset</code> added to every key from
+     * <code>keyStart</code>. A negative offset first removes the keys it covers, adding their
+     * values to <code>removed</code>.
+     */
+    private static TreeMap<Integer, Integer> offsetKeys(TreeMap<Integer, Integer> mappings,
+            int keyStart, int offset, ArrayList<Integer> removed) {
+        TreeMap<Integer, Integer> result = new TreeMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> entry : mappings.entrySet()) {
+            int key = entry.getKey();
+            if (key < keyStart) {
+                result.put(key, entry.getValue());
+            } else if (offset < 0 && key < keyStart - offset) {
+                removed.add(entry.getValue());
+            } else {
+                result.put(key + offset, entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static void assertSameMappings(String message, TreeMap<Integer, Integer> expected,
+            PositionMap<Integer> map) {
+        assertEquals(message, expected.size(), map.size());
+        int index = 0;
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(message, (int) entry.getKey(), map.keyAt(index));
+            assertEquals(message, entry.getValue(), map.valueAt(index));
+            assertEquals(message, index, map.indexOfKey(entry.getKey()));
+            index++;
+        }
+        for (int key = -10; key < 80; key++) {
+            assertEquals(message + ", key " + key, expected.get(key), map.get(key));
+        }
+    }
+}
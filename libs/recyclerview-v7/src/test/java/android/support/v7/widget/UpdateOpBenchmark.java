@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v7.widget;
+
+import android.support.v7.widget.RecyclerView.UpdateOp;
+
+import java.util.ArrayList;
+
+/**
+ * Measures a burst of 500 <code>notifyItemInserted</code> calls, posted as
+ * {@link RecyclerView#postAdapterUpdate} does with and without coalescing, and then applied to
+ * the positions of the attached view holders kept in a {@link PositionMap}. Bursts append items
+ * at the end, or insert them one after another at the front.
+ *
+ * <p>This is not run as a test. Run its main method on a desktop JVM to print the number of ops
+ * left after each burst and the average time of a burst.</p>
+ */
+public class UpdateOpBenchmark {
+    private static final int INSERTS = 500;
+    private static final int HOLDERS = 20;
+    private static final int ROUNDS = 20000;
+    private static final int PASSES = 3;
+
+    private static int sSink;
+
+    public static void main(String[] args) {
+        ArrayList<UpdateOp> pending = new ArrayList<UpdateOp>();
+        PositionMap<Object> holders = new PositionMap<Object>();
+        Object holder = new Object();
+        for (boolean atFront : new boolean[] { false, true }) {
+            for (boolean coalesce : new boolean[] { false, true }) {
+                // Earlier passes warm up the JIT, only the last one is reported
+                for (int pass = 0; pass < PASSES; pass++) {
+                    long start = System.nanoTime();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        holders.clear();
+                        for (int i = 0; i < HOLDERS; i++) {
+                            holders.append(i, holder);
+                        }
+                        burst(pending, atFront, coalesce);
+                        sSink += pending.size();
+                        for (int i = 0, size = pending.size(); i < size; i++) {
+                            UpdateOp op = pending.get(i);
+                            holders.insertKeyRange(op.positionStart, op.itemCount);
+                        }
+                        sSink += holders.keyAt(HOLDERS - 1);
+                    }
+                    long end = System.nanoTime();
+                    if (pass == PASSES - 1) {
+                        System.out.printf("inserts=%d at=%s coalesce=%b ops=%d burst=%.2fus%n",
+                                INSERTS, atFront ? "front" : "end", coalesce, pending.size(),
+                                (end - start) / (ROUNDS * 1000.0));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void burst(ArrayList<UpdateOp> pending, boolean atFront, boolean coalesce) {
+        pending.clear();
+        for (int i = 0; i < INSERTS; i++) {
+            int position = atFront ? 0 : HOLDERS + i;
+            UpdateOp op = new UpdateOp(UpdateOp.ADD, position, 1);
+            int pendingCount = pending.size();
+            if (coalesce && pendingCount > 0 && pending.get(pendingCount - 1).coalesce(op)) {
+                continue;
+            }
+            pending.add(op);
+        }
+    }
+}
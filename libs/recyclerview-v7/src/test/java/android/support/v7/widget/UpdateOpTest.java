@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2014 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v7.widget;
+
+import android.support.v7.widget.RecyclerView.UpdateOp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UpdateOpTest {
+    private static final int ITERATIONS = 50000;
+    private static final int OPS = 10;
+
+    @Test
+    public void insertsIntoOrNextToInsertedRangeCoalesce() {
+        UpdateOp op = new UpdateOp(UpdateOp.ADD, 5, 2);
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.ADD, 7, 1)));
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.ADD, 5, 1)));
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.ADD, 6, 2)));
+        assertOp(UpdateOp.ADD, 5, 6, op);
+
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.ADD, 12, 1)));
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.ADD, 4, 1)));
+        assertOp(UpdateOp.ADD, 5, 6, op);
+    }
+
+    @Test
+    public void removalOfInsertedItemsShrinksInsert() {
+        UpdateOp op = new UpdateOp(UpdateOp.ADD, 5, 3);
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 6, 2)));
+        assertOp(UpdateOp.ADD, 5, 1, op);
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 5, 2)));
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 5, 1)));
+        assertOp(UpdateOp.ADD, 5, 0, op);
+    }
+
+    @Test
+    public void removalsTouchingRemovedRangeCoalesce() {
+        UpdateOp op = new UpdateOp(UpdateOp.REMOVE, 5, 2);
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 5, 1)));
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 3, 2)));
+        assertOp(UpdateOp.REMOVE, 3, 5, op);
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 4, 1)));
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.ADD, 3, 1)));
+    }
+
+    @Test
+    public void overlappingOrAdjacentUpdatesCoalesce() {
+        UpdateOp op = new UpdateOp(UpdateOp.UPDATE, 5, 2);
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.UPDATE, 7, 1)));
+        assertTrue(op.coalesce(new UpdateOp(UpdateOp.UPDATE, 2, 4)));
+        assertOp(UpdateOp.UPDATE, 2, 6, op);
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.UPDATE, 9, 1)));
+        assertFalse(op.coalesce(new UpdateOp(UpdateOp.REMOVE, 2, 1)));
+    }
+
+    /**
+     * Applies random sequences of ops to a list one by one, and again after coalescing them as
+     * {@link RecyclerView#postAdapterUpdate} does, and checks that both give the same items and
+     * update the same original items.
+     */
+    @Test
+    public void coalescedOpsMatchOpsAppliedOneByOne() {
+        Random random = new Random(7);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            List<String> original = new ArrayList<String>();
+            int size = random.nextInt(15);
+            for (int i = 0; i < size; i++) {
+                original.add("item" + i);
+            }
+            List<String> expected = new ArrayList<String>(original);
+            Set<String> expectedUpdated = new HashSet<String>();
+            List<UpdateOp> pending = new ArrayList<UpdateOp>();
+            for (int i = 0; i < OPS; i++) {
+                UpdateOp op = randomOp(random, expected.size());
+                if (op == null) {
+                    continue;
+                }
+                apply(op, expected, expectedUpdated);
+                post(pending, op);
+            }
+
+            List<String> actual = new ArrayList<String>(original);
+            Set<String> actualUpdated = new HashSet<String>();
+            for (UpdateOp op : pending) {
+                apply(op, actual, actualUpdated);
+            }
+            String message = "iteration " + iteration + " on " + original;
+            assertEquals(message, expected, actual);
+            assertEquals(message, expectedUpdated, actualUpdated);
+        }
+    }
+
+    private static UpdateOp randomOp(Random random, int size) {
+        int cmd = random.nextInt(3);
+        if (cmd == UpdateOp.ADD) {
+            return new UpdateOp(cmd, random.nextInt(size + 1), random.nextInt(3));
+        }
+        if (size == 0) {
+            return null;
+        }
+        int positionStart = random.nextInt(size);
+        return new UpdateOp(cmd, positionStart, random.nextInt(size - positionStart + 1));
+    }
+
+    /** Mirrors {@link RecyclerView#postAdapterUpdate}, which coalesces with the last op. */
+    private static void post(List<UpdateOp> pending, UpdateOp op) {
+        UpdateOp copy = new UpdateOp(op.cmd, op.positionStart, op.itemCount);
+        int pendingCount = pending.size();
+        if (pendingCount > 0) {
+            UpdateOp last = pending.get(pendingCount - 1);
+            if (last.coalesce(copy)) {
+                if (last.itemCount == 0) {
+                    pending.remove(pendingCount - 1);
+                }
+                return;
+            }
+        }
+        pending.add(copy);
+    }
+
+    /** Applies an op to a list, adding original items which are updated to a set. */
+    private static void apply(UpdateOp op, List<String> items, Set<String> updated) {
+        for (int i = 0; i < op.itemCount; i++) {
+            switch (op.cmd) {
+                case UpdateOp.ADD:
+                    items.add(op.positionStart, "new");
+                    break;
+                case UpdateOp.REMOVE:
+                    items.remove(op.positionStart);
+                    break;
+                case UpdateOp.UPDATE:
+                    String item = items.get(op.positionStart + i);
+                    // Inserted items are bound from scratch, so updating them is not observable
+                    if (!item.equals("new")) {
+                        updated.add(item);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static void assertOp(int cmd, int positionStart, int itemCount, UpdateOp op) {
+        assertEquals(cmd, op.cmd);
+        assertEquals(positionStart, op.positionStart);
+        assertEquals(itemCount, op.itemCount);
+    }
+}